@@ -0,0 +1,45 @@
+package connectmodelbenchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @purpose BenchmarkRunner is the main class of benchmarks.jar. It takes the usual JMH
+ * command line, and adds the GC profiler when no profiler is given, so every run
+ * reports the bytes allocated per operation next to the time.
+ * @author madisongipson
+ *
+ * @input JMH command line options, such as a benchmark name pattern or -p size=6x7/4.
+ * @output JMH results.
+ */
+
+public class BenchmarkRunner
+{
+	public static void main(String[] args) throws IOException, RunnerException, CommandLineOptionException
+	{
+		CommandLineOptions options = new CommandLineOptions(args);
+		if(options.shouldHelp())
+		{
+			options.showHelp();
+			return;
+		}
+		if(options.shouldList())
+		{
+			new Runner(options).list();
+			return;
+		}
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+		if(options.getProfilers().isEmpty())
+		{
+			builder.addProfiler(GCProfiler.class); //same as -prof gc
+		}
+		new Runner(builder.build()).run();
+	}
+}
@@ -0,0 +1,121 @@
+package connectmodelbenchmarks;
+
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import connectmodel.GameBoard;
+import connectmodel.PieceType;
+
+/**
+ * @purpose BoardState is the board a benchmark runs on: one of several sizes, filled to
+ * an empty, mid-game or near-full position with random moves that don't end the game.
+ * The large sizes use the wide, many-word bitboards. It also picks a column the player
+ * to move can play without winning, so placing a piece there keeps the game going.
+ * @author madisongipson
+ *
+ * @input Board size as rows x columns / win length, and position.
+ * @output Board, slot & piece type of the player to move, and a column to play.
+ */
+
+@State(Scope.Thread)
+public class BoardState
+{
+	public static final PieceType[] TYPES = {PieceType.RED, PieceType.BLACK};
+
+	@Param({"6x7/4", "4x5/3", "7x8/5", "9x7/5", "20x20/6", "64x64/8"})
+	public String size;
+
+	@Param({"empty", "mid-game", "near-full"})
+	public String position;
+
+	GameBoard myBoard;
+	int mySlot;
+	PieceType myType;
+	int myColumn;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		myBoard = makeBoard(size, position);
+		mySlot = myBoard.getNumMoves() % 2;
+		myType = TYPES[mySlot];
+		myColumn = findQuietColumn(myBoard, mySlot);
+	}
+
+	/**
+	* Method to make a board of a size & fill it to a position
+	* @param size as rows x columns / win length & position name
+	* @return board with a quiet column for the player to move, who moves second if the
+	* number of moves is odd
+	* @author madisongipson */
+	static GameBoard makeBoard(String size, String position)
+	{
+		String[] parts = size.split("[x/]");
+		GameBoard board = new GameBoard(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), TYPES);
+		fill(board, getFill(position));
+		while(findQuietColumn(board, board.getNumMoves() % 2) < 0)
+		{
+			board.undoMove(); //every move would end the game, back up until one doesn't
+		}
+		return board;
+	}
+
+	private static double getFill(String position)
+	{
+		switch(position)
+		{
+			case "empty":
+				return 0.0;
+			case "mid-game":
+				return 0.45;
+			case "near-full":
+				return 0.85;
+			default:
+				throw new IllegalArgumentException("No position named "+position);
+		}
+	}
+
+	/**
+	* Method to fill part of a board with random moves that don't end the game
+	* @param board & fraction of spots to fill
+	* @author madisongipson */
+	private static void fill(GameBoard board, double fraction)
+	{
+		SplittableRandom random = new SplittableRandom(42);
+		int target = (int)(fraction*board.getNumRows()*board.getNumColumns());
+		int slot = 0;
+		int tries = 0;
+		while(board.getNumMoves() < target && tries < 10000)
+		{
+			tries++;
+			int col = random.nextInt(board.getNumColumns());
+			if(!board.isColumnFull(col) && !board.isWinningMove(col, slot))
+			{
+				board.placePiece(col, TYPES[slot]);
+				slot = board.getOpponentSlot(slot);
+			}
+		}
+	}
+
+	/**
+	* Method to find a column the player can play without winning
+	* @param board & slot of the player moving
+	* @return column, -1 if there is none
+	* @author madisongipson */
+	static int findQuietColumn(GameBoard board, int slot)
+	{
+		for(int col=0; col<board.getNumColumns(); col++)
+		{
+			if(!board.isColumnFull(col) && !board.isWinningMove(col, slot))
+			{
+				return col;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,66 @@
+package connectmodelbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import connectmodel.ComputerPlayer;
+import connectmodel.GameBoard;
+import connectmodel.NegamaxStrategy;
+
+/**
+ * @purpose ComputerPlayerBenchmarks times ComputerPlayer.nextMove, a whole search, on
+ * the board sizes & positions of BoardState. The search has no transposition table, so
+ * repeating it doesn't just hit stored scores. The widest board is left out & the
+ * 20x20 board searched shallower, since they have so many columns.
+ * @author madisongipson
+ *
+ * @input Board of a size & position.
+ * @output us/op of a move, and bytes/op with -prof gc.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ComputerPlayerBenchmarks
+{
+	@State(Scope.Thread)
+	public static class PlayerState
+	{
+		@Param({"6x7/4", "4x5/3", "7x8/5", "9x7/5", "20x20/6"})
+		public String size;
+
+		@Param({"empty", "mid-game", "near-full"})
+		public String position;
+
+		ComputerPlayer myPlayer;
+
+		@Setup(Level.Trial)
+		public void setUp()
+		{
+			GameBoard board = BoardState.makeBoard(size, position);
+			myPlayer = new ComputerPlayer("Computer", BoardState.TYPES[board.getNumMoves() % 2], board);
+			myPlayer.setStrategy(new NegamaxStrategy(board.getNumColumns() > 10? 2 : 6));
+		}
+	}
+
+	@Benchmark
+	public void nextMove(PlayerState state, Blackhole blackhole)
+	{
+		blackhole.consume(state.myPlayer.nextMove());
+	}
+}
@@ -0,0 +1,63 @@
+package connectmodelbenchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * @purpose GameBoardBenchmarks times the GameBoard hot paths on every size & position of
+ * BoardState. Moves are taken back within the benchmark, so the board is the same for
+ * every call.
+ * @author madisongipson
+ *
+ * @input Board of a size & position.
+ * @output ns/op for each method, and bytes/op with -prof gc.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameBoardBenchmarks
+{
+	@Benchmark
+	public void placePieceUndoMove(BoardState state, Blackhole blackhole)
+	{
+		blackhole.consume(state.myBoard.placePiece(state.myColumn, state.myType));
+		state.myBoard.undoMove();
+	}
+
+	@Benchmark
+	public void checkIfWin(BoardState state, Blackhole blackhole)
+	{
+		state.myBoard.placePiece(state.myColumn, state.myType);
+		blackhole.consume(state.myBoard.checkIfWin());
+		state.myBoard.undoMove();
+	}
+
+	@Benchmark
+	public void isWinningMove(BoardState state, Blackhole blackhole)
+	{
+		blackhole.consume(state.myBoard.isWinningMove(state.myColumn, state.mySlot));
+	}
+
+	@Benchmark
+	public void hasWin(BoardState state, Blackhole blackhole)
+	{
+		blackhole.consume(state.myBoard.hasWin(state.mySlot));
+	}
+
+	@Benchmark
+	public void findBestMoveColumn(BoardState state, Blackhole blackhole)
+	{
+		blackhole.consume(state.myBoard.findBestMoveColumn(state.myType));
+	}
+}
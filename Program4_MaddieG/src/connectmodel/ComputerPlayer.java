@@ -2,7 +2,11 @@ package connectmodel;
 
 /**
  * @purpose ComputerPlayer class extends the Player class. ComputerPlayer is a Player 
- * not controlled by the user, that plays against the Player.  
+ * not controlled by the user, that plays against the Player. How it picks a move is
+ * decided by its Strategy, by default a negamax search that deepens until its time per move runs out.
+ * Setting a Difficulty swaps in that level's strategy.
+ * In solve mode it plays perfectly with the Solver on the boards the Solver supports, and
+ * it can prove the exact result of any such position, for hints like "winning in N".
  * @author madisongipson
  *
  * @datedue March 27, 2019, 11:59pm
@@ -13,8 +17,16 @@ package connectmodel;
 
 public class ComputerPlayer extends Player
 {
+	public static final int DEFAULT_TABLE_MEGABYTES = 16;
 	private GameBoard myGameBoard;
 	private PieceType myType;
+	private volatile Strategy myStrategy;
+	private Difficulty myDifficulty;
+	private OpeningBook myOpeningBook;
+	private volatile Solver mySolver;
+	private boolean myIsSolveMode;
+	private long myNumStops; //stopThinking() calls so far, the ticket of the next move
+	private Strategy myThinkingStrategy; //searching the last move handed out, for stopThinking()
 	
 	//Constructor
 	public ComputerPlayer(String name, PieceType type, GameBoard gameboard)
@@ -31,7 +43,197 @@ public class ComputerPlayer extends Player
 	* */
 	public int nextMove()
 	{
-		return myGameBoard.findBestMoveColumn(getPieceType());
+		return nextMove(myGameBoard);
+	}
+	
+	/**
+	* Method to determine next move on a given board, such as a copy searched on
+	* another thread while the game's own board stays with the user interface
+	* @param game board to move on
+	* @return Column that ComputerPlayer should place next piece into
+	* @author madisongipson
+	* */
+	public int nextMove(GameBoard gameboard)
+	{
+		return nextMove(gameboard, myIsSolveMode && Solver.isSupported(gameboard)? getSolver() : getStrategy());
+	}
+	
+	/**
+	* Method to determine next move with the opening book, then a given strategy
+	* @param game board to move on & strategy to search with when the book has no move
+	* @return Column that ComputerPlayer should place next piece into
+	* @author madisongipson
+	* */
+	private int nextMove(GameBoard gameboard, Strategy strategy)
+	{
+		if(myOpeningBook != null)
+		{
+			int col = myOpeningBook.lookup(gameboard, getPieceType());
+			if(col > -1 && !gameboard.isColumnFull(col)) //book move saves a search
+			{
+				return col;
+			}
+		}
+		return strategy.chooseColumn(gameboard, getPieceType());
+	}
+	
+	/**
+	* Method to determine next move on a copy searched on another thread, as handed out
+	* with startThinking(). The strategy or solver to search with is picked & the stop
+	* left by an earlier stopThinking() is cleared here, under the same lock as
+	* stopThinking() & only if the move is still wanted, so a stop made while the move
+	* waits to start is never lost & always reaches the search, even if the difficulty
+	* changes meanwhile
+	* @param game board to move on & ticket from startThinking()
+	* @return Column that ComputerPlayer should place next piece into, -1 if the move was
+	* stopped before it started
+	* @author madisongipson
+	* */
+	public int nextMove(GameBoard gameboard, long ticket)
+	{
+		Strategy strategy;
+		synchronized(this)
+		{
+			if(ticket != myNumStops)
+			{
+				return -1;
+			}
+			strategy = myIsSolveMode && Solver.isSupported(gameboard)? getSolver() : getStrategy();
+			strategy.restart();
+			myThinkingStrategy = strategy;
+		}
+		return nextMove(gameboard, strategy);
+	}
+	
+	/**
+	* Method to get the ticket for a move about to be handed to another thread; a
+	* stopThinking() call after this stops that move, even if it has not started yet
+	* @return ticket to pass to nextMove
+	* @author madisongipson
+	* */
+	public synchronized long startThinking()
+	{
+		return myNumStops;
+	}
+	
+	/**
+	* Method to prove the exact result of a position with the solver
+	* @param game board & piece type of the player to move, which may be the opponent's
+	* @return score for that player, positive for a win, negative for a loss & 0 for a draw;
+	* Solver.getMovesToWin turns it into the number of moves the win takes
+	* @throws IllegalArgumentException if the solver does not support the board
+	* @author madisongipson
+	* */
+	public int solve(GameBoard gameboard, PieceType type)
+	{
+		return getSolver().solve(gameboard, type);
+	}
+	
+	/**
+	* Method to prove the exact result of playing each column, for hints
+	* @param game board & piece type of the player to move
+	* @return score of each column for that player, Solver.FULL_COLUMN for full columns &
+	* Solver.UNSOLVED for columns a stopThinking() left unsolved
+	* @throws IllegalArgumentException if the solver does not support the board
+	* @author madisongipson
+	* */
+	public int[] analyze(GameBoard gameboard, PieceType type)
+	{
+		return getSolver().analyze(gameboard, type);
+	}
+	
+	/**
+	* Method to make a move being searched on another thread return early. Searches
+	* stay stopped until the next move handed out with startThinking() begins
+	* @author madisongipson
+	* */
+	public synchronized void stopThinking()
+	{
+		myNumStops++;
+		if(myThinkingStrategy != null)
+		{
+			myThinkingStrategy.stop(); //may no longer be the player's strategy
+		}
+		if(myStrategy != null)
+		{
+			myStrategy.stop();
+		}
+		if(mySolver != null)
+		{
+			mySolver.stop();
+		}
+	}
+	
+	/**
+	* Method to get the strategy, creating the default one the first time it is needed
+	* so players that never move don't pay for a transposition table
+	* @return strategy used to pick moves
+	* @author madisongipson */
+	public synchronized Strategy getStrategy()
+	{
+		if(myStrategy == null)
+		{
+			myStrategy = new IterativeDeepeningStrategy(IterativeDeepeningStrategy.DEFAULT_TIME_LIMIT_MILLIS);
+		}
+		return myStrategy;
+	}
+	
+	/**
+	* Method to get the solver, creating it the first time it is needed
+	* @return solver used in solve mode & for hints
+	* @author madisongipson */
+	public synchronized Solver getSolver()
+	{
+		if(mySolver == null)
+		{
+			mySolver = new Solver();
+		}
+		return mySolver;
+	}
+	
+	public boolean isSolveMode()
+	{
+		return myIsSolveMode;
+	}
+	
+	public void setSolveMode(boolean solveMode)
+	{
+		myIsSolveMode = solveMode;
+	}
+	
+	public synchronized void setStrategy(Strategy strategy)
+	{
+		myStrategy = strategy;
+		myDifficulty = null; //a strategy set by hand is not one of the levels
+	}
+	
+	/**
+	* Method to get the level the player plays at
+	* @return difficulty, null if the strategy was set by hand or is the default
+	* @author madisongipson */
+	public Difficulty getDifficulty()
+	{
+		return myDifficulty;
+	}
+	
+	/**
+	* Method to play at a level from the next move on, with a new strategy for it
+	* @param difficulty to play at
+	* @author madisongipson */
+	public synchronized void setDifficulty(Difficulty difficulty)
+	{
+		myStrategy = difficulty.createStrategy();
+		myDifficulty = difficulty;
+	}
+	
+	public OpeningBook getOpeningBook()
+	{
+		return myOpeningBook;
+	}
+	
+	public void setOpeningBook(OpeningBook book)
+	{
+		myOpeningBook = book;
 	}
 	
 	public GameBoard getMyGameBoard()
@@ -0,0 +1,124 @@
+package connectmodel;
+
+/**
+ * @purpose Difficulty is an enumeration of the levels a ComputerPlayer can play at.
+ * Each level is a search budget & some move noise: easy looks one move ahead &
+ * often plays at random, medium searches a few moves ahead on a short clock, hard
+ * and expert search as deep as their time per move allows. The time per move
+ * bounds the CPU a move takes, since the searches run on one thread, so a server
+ * can pick the strongest level that fits its CPU quota for a game.
+ * @author madisongipson
+ *
+ * @input
+ * @output Strategy for the level & its CPU cost per move and per game.
+ */
+
+public enum Difficulty
+{
+	EASY ("Easy", 0, 1, 0, 0.25),
+	MEDIUM ("Medium", 20, 4, 4, 0.1),
+	HARD ("Hard", 100, Integer.MAX_VALUE, ComputerPlayer.DEFAULT_TABLE_MEGABYTES, 0),
+	EXPERT ("Expert", 1000, Integer.MAX_VALUE, 64, 0);
+
+	private static final long GREEDY_CPU_MILLIS = 1; //one move ahead, well under a millisecond even on wide boards
+
+	private String myName;
+	private long myTimeLimitMillis;
+	private int myMaxDepth;
+	private int myTableMegabytes;
+	private double myNoise;
+
+	/**
+	* @param name shown to players
+	* @param timeLimitMillis milliseconds of search per move, 0 for only looking one move ahead
+	* @param maxDepth deepest search
+	* @param tableMegabytes size of the transposition table
+	* @param noise chance of playing a random column
+	*/
+	private Difficulty(String name, long timeLimitMillis, int maxDepth, int tableMegabytes, double noise)
+	{
+		myName = name;
+		myTimeLimitMillis = timeLimitMillis;
+		myMaxDepth = maxDepth;
+		myTableMegabytes = tableMegabytes;
+		myNoise = noise;
+	}
+
+	/**
+	* Method to make a new strategy playing at this level; every player needs its own,
+	* since searches keep their own tables
+	* @return strategy for the level
+	* @author madisongipson */
+	public Strategy createStrategy()
+	{
+		Strategy strategy;
+		if(myTimeLimitMillis == 0)
+		{
+			strategy = new GreedyStrategy();
+		}
+		else
+		{
+			strategy = new IterativeDeepeningStrategy(myTimeLimitMillis, myMaxDepth, new TranspositionTable(myTableMegabytes));
+		}
+		return myNoise > 0? new NoisyStrategy(strategy, myNoise) : strategy;
+	}
+
+	/**
+	* Method to get the CPU one move is expected to take on any board size. Searches
+	* check the clock every few thousand nodes, so a move can run a little over
+	* @return milliseconds of CPU per move
+	* @author madisongipson */
+	public long getCpuMillisPerMove()
+	{
+		return myTimeLimitMillis == 0? GREEDY_CPU_MILLIS : myTimeLimitMillis;
+	}
+
+	/**
+	* Method to get the CPU the computer's moves take over a whole game, which is at most
+	* half the spots on the board, rounded up
+	* @param rows & columns of the board
+	* @return milliseconds of CPU per game
+	* @author madisongipson */
+	public long getCpuMillisPerGame(int rows, int cols)
+	{
+		return getCpuMillisPerMove()*((rows*cols+1)/2);
+	}
+
+	/**
+	* Method to find the strongest level whose games fit a CPU quota
+	* @param CPU quota in milliseconds per game, rows & columns of the board
+	* @return strongest level that fits, EASY if none does
+	* @author madisongipson */
+	public static Difficulty forCpuQuota(long cpuMillisPerGame, int rows, int cols)
+	{
+		Difficulty best = EASY;
+		for(Difficulty difficulty : values())
+		{
+			if(difficulty.getCpuMillisPerGame(rows, cols) <= cpuMillisPerGame)
+			{
+				best = difficulty; //levels go from weakest to strongest
+			}
+		}
+		return best;
+	}
+
+	public String getName()
+	{
+		return myName;
+	}
+
+	public long getTimeLimitMillis()
+	{
+		return myTimeLimitMillis;
+	}
+
+	public int getMaxDepth()
+	{
+		return myMaxDepth;
+	}
+
+	public double getNoise()
+	{
+		return myNoise;
+	}
+}
@@ -1,6 +1,5 @@
 package connectmodel;
 
-import java.awt.Point;
 import java.util.Arrays;
 import java.util.Vector;
 
@@ -8,15 +7,20 @@ import connectmodel.PieceType;
 
 /**
  * @purpose GameBoard controls all gameboard-related functions for the Connect Four Game.
- * This includes placing pieces, tracking the last piece placed, resetting the board, 
- * checking the board, counting length of pieces on boards, checking for wins, 
- * and finding the best possible move. 
+ * This includes placing pieces & taking them back, tracking the last piece placed, resetting the board,
+ * checking the board, counting length of pieces on boards, checking for wins,
+ * and finding the best possible move.
+ * The board is stored as one packed long (bitboard) per piece type plus the height of
+ * each column. Bit (col * (rows+1) + row) is the spot at that column and row; the extra
+ * row on top of every column is always empty so that shifted runs never wrap columns.
+ * Boards too big for one long keep the same bit layout spread over an array of longs
+ * per piece type; which storage is used is picked once, from the board size.
  * @author madisongipson
  *
  * @datedue March 27, 2019, 11:59pm
- * 
+ *
  * @input Number of rows & columns, win length, and types of pieces being used.
- * @output 
+ * @output
  */
 
 
@@ -24,32 +28,154 @@ public class GameBoard
 {
     private int myNumRows;
     private int myNumColumns;
-    private PieceType[][] myBoard;
+    private int myColumnHeight;
+    private long[] myPlayerBits; //one bitboard per slot, null when the board is wide
+    private long[][] myWideBits; //words of the bitboard per slot, null when the board fits in a long
+    private long[] myRunWords; //work space for finding runs on a wide board
+    private int[] myHeights;
+    private int myNumMoves;
+    private int[] myHistory; //column << 1 | slot of every piece, in the order placed
+    private ThreatEvaluator myEvaluator;
+    private long[] myZobristKeys;
+    private long myHash;
+    private int[] mySlots;
+    private PieceType[] mySlotTypes;
+    private int[] myDirections;
     private int myNumTypes;
     private int myWinLength;
-    private Point myLastPoint;
+    private int myLastColumn;
     private Vector<PieceType> myTypes;
-    private Point myWinBegin;
-    private Point myWinEnd;
+    private int myWinBegin;
+    private int myWinEnd;
     private boolean myIsAWin;
     private int myLastRow;
-	
-    public GameBoard(int rows, int cols, int winLength, PieceType[] types) 
+    private int myWinDirection;
+    private int myWinPly;
+    private int myCheckedPly;
+
+    private static final int VERTICAL = 0;
+    private static final int HORIZONTAL = 1;
+    private static final int DIAGONAL_UP = 2;
+    private static final int DIAGONAL_DOWN = 3;
+    private static final long ZOBRIST_SEED = 0x2545F4914F6CDD1DL;
+
+    public GameBoard(int rows, int cols, int winLength, PieceType[] types)
     {
     	myNumRows = rows;
     	myNumColumns = cols;
     	myWinLength = winLength;
-    	myBoard = new PieceType[myNumColumns][myNumRows];
-    	PieceType[] myPieces = new PieceType[myNumTypes]; 
+    	checkSize(rows, cols, winLength);
+    	myColumnHeight = myNumRows+1; //extra empty row on top of each column
+    	PieceType[] myPieces = new PieceType[myNumTypes];
     	myTypes = new Vector<PieceType>(Arrays.asList(myPieces));
     	myTypes.add(types[0]);
     	if(myNumRows>1 && myNumColumns>1)
     	{
-    		myTypes.add(types[1]);	
+    		myTypes.add(types[1]);
+    	}
+    	myNumTypes = myTypes.size();
+    	mySlotTypes = myTypes.toArray(new PieceType[myNumTypes]);
+    	mySlots = new int[PieceType.values().length];
+    	Arrays.fill(mySlots, -1);
+    	for(int slot=myNumTypes-1; slot>-1; slot--) //first type wins if both players chose the same type
+    	{
+    		mySlots[mySlotTypes[slot].ordinal()] = slot;
+    	}
+    	if(isWide(rows, cols))
+    	{
+    		myWideBits = new long[myNumTypes][(myColumnHeight*myNumColumns + Long.SIZE-1)/Long.SIZE];
+    		myRunWords = new long[myWideBits[0].length];
+    	}
+    	else
+    	{
+    		myPlayerBits = new long[myNumTypes];
+    	}
+    	myHeights = new int[myNumColumns];
+    	myHistory = new int[myNumRows*myNumColumns];
+    	myDirections = new int[] {1, myColumnHeight, myColumnHeight+1, myColumnHeight-1}; //vertical, horizontal, both diagonals
+    	myEvaluator = new ThreatEvaluator(rows, cols, winLength);
+    	setZobristKeys();
+    	myLastColumn = -1;
+    	myWinBegin = -1;
+    	myWinEnd = -1;
+    	myWinDirection = -1;
+    	myWinPly = -1;
+    	myCheckedPly = -1;
+    }
+
+    /**
+     * Copies another board, so a search can run on its own board while the original is in use.
+     * Tables that never change after construction are shared with the original
+     * @param board to copy
+     * @author madisongipson */
+    public GameBoard(GameBoard board)
+    {
+    	myNumRows = board.myNumRows;
+    	myNumColumns = board.myNumColumns;
+    	myWinLength = board.myWinLength;
+    	myColumnHeight = board.myColumnHeight;
+    	myTypes = new Vector<PieceType>(board.myTypes);
+    	myNumTypes = board.myNumTypes;
+    	mySlotTypes = board.mySlotTypes;
+    	mySlots = board.mySlots;
+    	myDirections = board.myDirections;
+    	myZobristKeys = board.myZobristKeys;
+    	if(board.myWideBits != null)
+    	{
+    		myWideBits = new long[myNumTypes][];
+    		myRunWords = new long[board.myRunWords.length]; //not shared, copies may search on other threads
+    		for(int slot=0; slot<myNumTypes; slot++)
+    		{
+    			myWideBits[slot] = board.myWideBits[slot].clone();
+    		}
+    	}
+    	else
+    	{
+    		myPlayerBits = board.myPlayerBits.clone();
+    	}
+    	myHeights = board.myHeights.clone();
+    	myHistory = board.myHistory.clone();
+    	myEvaluator = new ThreatEvaluator(board.myEvaluator);
+    	myHash = board.myHash;
+    	myNumMoves = board.myNumMoves;
+    	myLastColumn = board.myLastColumn;
+    	myLastRow = board.myLastRow;
+    	myIsAWin = board.myIsAWin;
+    	myWinBegin = board.myWinBegin;
+    	myWinEnd = board.myWinEnd;
+    	myWinDirection = board.myWinDirection;
+    	myWinPly = board.myWinPly;
+    	myCheckedPly = board.myCheckedPly;
+    }
+
+    /**
+     * Method to check a board size & win length before a board is made, so callers
+     * can find a bad size before building anything around the board
+     * @param rows, columns & win length
+     * @throws IllegalArgumentException if the board is empty or the win can't fit on it
+     * @author madisongipson */
+    public static void checkSize(int rows, int cols, int winLength)
+    {
+    	if(rows < 1 || cols < 1 || cols > 256) //columns are stored in a byte by books & game records
+    	{
+    		throw new IllegalArgumentException("A "+rows+"x"+cols+" board is not allowed");
+    	}
+    	if(winLength < 2 || winLength > Math.max(rows, cols))
+    	{
+    		throw new IllegalArgumentException("A win length of "+winLength+" does not fit a "+rows+"x"+cols+" board");
     	}
-    	myNumTypes = myTypes.size(); 
     }
-	
+
+    /**
+     * Method to check if a board size needs the array of longs per piece type
+     * @param rows & columns
+     * @return truth value of the bitboard, with its empty row on top, needing more than one long
+     * @author madisongipson */
+    public static boolean isWide(int rows, int cols)
+    {
+    	return (long)(rows+1)*cols > Long.SIZE;
+    }
+
     /**
     * Method to place a piece in a valid column & an empty spot
     * @param column piece wants to be placed into & piece type of piece being placed
@@ -57,443 +183,670 @@ public class GameBoard
     * @author madisongipson */
     public boolean placePiece(int col, PieceType type)
     {
-    	if(col < myNumColumns && col > -1) //ensure column is within bounds
+    	if(col < myNumColumns && col > -1 && myHeights[col] < myNumRows) //ensure column is within bounds and not full
     	{
-    		for(int i=0; i< myNumRows; i++) //loop through rows of column
+    		int slot = mySlots[type.ordinal()];
+    		if(slot > -1)
     		{
-    			if(myBoard[col][i] == null) //check if spot if empty
-    			{
-    				myBoard[col][i] = type; //assign given type to spot
-    				myLastPoint = new Point(i, col); //assign last point to spot
-    				myLastRow = i;
-    				return true;
-    			}
+    			makeMove(col, slot);
+    			myLastColumn = col;
+    			myLastRow = myHeights[col]-1;
+    			myCheckedPly = -1; //new last piece has not been checked for a win
+    			return true;
     		}
     	}
 	    return false;
     }
-	
+
+    /**
+     * Method to drop a piece into a column without any checks, used by searches that
+     * make & unmake moves in place. The last point & win status are left alone
+     * @param column that is not full & slot of piece type being placed
+     * @author madisongipson */
+    public void makeMove(int col, int slot)
+    {
+    	int bit = col*myColumnHeight + myHeights[col]++; //lowest empty spot in the column
+    	if(myWideBits == null)
+    	{
+    		myPlayerBits[slot] |= 1L << bit;
+    	}
+    	else
+    	{
+    		myWideBits[slot][bit >>> 6] |= 1L << bit; //shifts only use the low 6 bits
+    	}
+    	myEvaluator.place(bit, slot);
+    	myHash ^= myZobristKeys[slot*myColumnHeight*myNumColumns + bit];
+    	myHistory[myNumMoves++] = col << 1 | slot;
+    }
+
+    /**
+     * Method to take back the last piece placed, by placePiece or makeMove, putting the
+     * board back exactly as it was: pieces, last spot, win status, hash & evaluation.
+     * Every part is restored in constant time from the move history
+     * @return column the piece was taken from, -1 if the board is empty
+     * @author madisongipson */
+    public int undoMove()
+    {
+    	if(myNumMoves == 0)
+    	{
+    		return -1;
+    	}
+    	int move = myHistory[myNumMoves-1];
+    	int col = move >>> 1;
+    	unmakeMove(col, move & 1);
+    	if(myNumMoves == 0)
+    	{
+    		myLastColumn = -1;
+    		myLastRow = 0;
+    	}
+    	else
+    	{
+    		myLastColumn = myHistory[myNumMoves-1] >>> 1;
+    		myLastRow = myHeights[myLastColumn]-1;
+    	}
+    	if(myWinPly > myNumMoves) //the piece taken back made the win
+    	{
+    		myWinPly = -1;
+    		myWinBegin = -1;
+    		myWinEnd = -1;
+    		myWinDirection = -1;
+    		myIsAWin = false;
+    	}
+    	myCheckedPly = -1; //the last piece is checked again if asked
+    	return col;
+    }
+
+    /**
+     * Method to take back the top piece of a column placed by makeMove
+     * @param column & slot of piece type that was placed
+     * @author madisongipson */
+    public void unmakeMove(int col, int slot)
+    {
+    	int bit = col*myColumnHeight + --myHeights[col];
+    	if(myWideBits == null)
+    	{
+    		myPlayerBits[slot] &= ~(1L << bit);
+    	}
+    	else
+    	{
+    		myWideBits[slot][bit >>> 6] &= ~(1L << bit);
+    	}
+    	myEvaluator.remove(bit, slot);
+    	myHash ^= myZobristKeys[slot*myColumnHeight*myNumColumns + bit];
+    	myNumMoves--;
+    }
+
+    /**
+     * Method to check if dropping a piece into a column would win, without placing it
+     * @param column that is not full & slot of piece type being placed
+     * @return truth value of the piece making a win
+     * @author madisongipson */
+    public boolean isWinningMove(int col, int slot)
+    {
+    	if(myWideBits != null)
+    	{
+    		return findWinThrough(slot, col*myColumnHeight + myHeights[col], false) > -1;
+    	}
+    	long bits = myPlayerBits[slot] | (1L << (col*myColumnHeight + myHeights[col]));
+    	return findRunStarts(bits, myDirections[VERTICAL]) != 0 ||
+    			findRunStarts(bits, myDirections[HORIZONTAL]) != 0 ||
+    			findRunStarts(bits, myDirections[DIAGONAL_UP]) != 0 ||
+    			findRunStarts(bits, myDirections[DIAGONAL_DOWN]) != 0;
+    }
+
+    /**
+     * Method to check the whole board for a win by one piece type, wherever it is, such
+     * as for a position that was loaded rather than played. Every spot is checked at once
+     * with shifts & masks, a word at a time on wide boards
+     * @param slot of piece type
+     * @return truth value of the piece type having a run of win length
+     * @author madisongipson */
+    public boolean hasWin(int slot)
+    {
+    	for(int direction=0; direction<myDirections.length; direction++)
+    	{
+    		if(myWideBits == null? findRunStarts(myPlayerBits[slot], myDirections[direction]) != 0 :
+    				findRunStarts(myWideBits[slot], myDirections[direction]))
+    		{
+    			return true;
+    		}
+    	}
+    	return false;
+    }
+
+    /**
+     * Method to score the board for the piece type to move without searching, from the
+     * open windows, odd & even threats and center control of both piece types. The
+     * ThreatEvaluator keeps the score up to date as pieces are placed & taken back
+     * @param slot of piece type to move
+     * @return score, positive when the piece type is ahead
+     * @author madisongipson */
+    public int evaluate(int slot)
+    {
+    	return myEvaluator.evaluate(slot, myNumMoves % 2 == 0); //with even moves made, the player to move went first
+    }
+
     /**
      * Method to reset the entire board so all spots are null (empty)
      * @author madisongipson */
-    public void resetBoard() 
+    public void resetBoard()
     {
-    	for(int i=0; i< myNumColumns; i++) //loop through all columns
- 	   {
- 		   for(int j=0; j< myNumRows; j++) //loop through all rows
- 		   {
- 			   if(myBoard[i][j] != null) //check if spot if filled
- 			   {
- 				   myBoard[i][j] = null; //if spot is filled, empty spot
- 			   }
- 		   }
- 	   }
- 	   
+    	if(myWideBits == null)
+    	{
+    		Arrays.fill(myPlayerBits, 0L);
+    	}
+    	else
+    	{
+    		for(long[] words : myWideBits)
+    		{
+    			Arrays.fill(words, 0L);
+    		}
+    	}
+    	Arrays.fill(myHeights, 0);
+    	myEvaluator.reset();
+    	myHash = 0;
+    	myNumMoves = 0;
+    	myLastColumn = -1;
+    	myLastRow = 0;
+    	myIsAWin = false;
+    	myWinBegin = -1;
+    	myWinEnd = -1;
+    	myWinDirection = -1;
+    	myWinPly = -1;
+    	myCheckedPly = -1;
     }
-	
+
     /**
-     * Method to check if there is a win of any direction type
+     * Method to check if there is a win of any direction type. Only the lines through
+     * the last piece placed are checked, and the result is cached until the next piece is placed
      * @return truth value of win status
      * @author madisongipson */
-    public boolean checkIfWin() 
+    public boolean checkIfWin()
     {
-    	if(myLastPoint != null) { //if there exists a last point
-    		if(checkHorizontalWin()== true || checkVerticalWin()==true || checkDiagonalWin()== true)
-        	{
-        		myIsAWin = true; //if any type of win happens, there is a win
-        	}
-        	else
-        	{
-        		myIsAWin = false;
-        	}	
+    	if(myWinPly < 0 && myCheckedPly != myNumMoves && myLastColumn > -1) //if last piece hasn't been checked yet
+    	{
+    		myCheckedPly = myNumMoves;
+    		if(findWinThroughLastPiece() == true)
+    		{
+    			myWinPly = myNumMoves; //win stays until the board is reset or the piece is taken back
+    		}
     	}
+    	myIsAWin = myWinPly > -1;
     	return myIsAWin;
     }
-	
+
     /**
-     * Method to find the best possible move to either extend length or block
+     * Method to find the best possible move without searching: win if possible, otherwise
+     * block the opponent's win, otherwise play the column with the best evaluation that
+     * doesn't give the opponent a win right on top of it
      * @param piece type of piece being placed
-     * @return column number that would yield the best move
+     * @return column number that would yield the best move, -1 if every column is full
      * @author madisongipson */
     public int findBestMoveColumn(PieceType type)
     {
-    	PieceType opponentType = type == myTypes.firstElement()? myTypes.lastElement():myTypes.firstElement();
+    	int slot = mySlots[type.ordinal()];
+    	int opponent = getOpponentSlot(slot);
     	for(int cols=0; cols<myNumColumns; cols++)
-    	{    		
-    		if(countVerticalLengthIfPiecePlaced(cols, type) == myWinLength || 
-    				countHorizontalLengthIfPiecePlaced(cols, type) == myWinLength || 
-    				countDiagonalLengthIfPiecePlaced(cols, type) == myWinLength)
+    	{
+    		if(!isColumnFull(cols) && isWinningMove(cols, slot))
     		{
     			return cols;
     		}
     	}
     	for(int cols=0; cols<myNumColumns; cols++)
     	{
-    		if(countVerticalLengthIfPiecePlaced(cols, opponentType) == myWinLength || 
-    				countHorizontalLengthIfPiecePlaced(cols, opponentType) == myWinLength || 
-    				countDiagonalLengthIfPiecePlaced(cols, opponentType) == myWinLength)
+    		if(!isColumnFull(cols) && isWinningMove(cols, opponent))
     		{
     			return cols;
     		}
     	}
-    	int bestMove = 0;
-    	int longest = 0;
+    	int bestMove = -1;
+    	int bestScore = Integer.MIN_VALUE;
     	for(int cols=0; cols<myNumColumns; cols++)
     	{
-    		int currentLength = countVerticalLengthIfPiecePlaced(cols, type);
-    		currentLength +=  countHorizontalLengthIfPiecePlaced(cols, type);
-    		currentLength += countDiagonalLengthIfPiecePlaced(cols, type);
-    		if(currentLength > longest)
+    		if(isColumnFull(cols))
+    		{
+    			continue;
+    		}
+    		makeMove(cols, slot);
+    		int score = -evaluate(opponent);
+    		if(!isColumnFull(cols) && isWinningMove(cols, opponent))
+    		{
+    			score -= 2*ThreatEvaluator.SCORE_LIMIT; //still playable if every column does this
+    		}
+    		unmakeMove(cols, slot);
+    		if(score > bestScore)
     		{
-    			longest = currentLength;
+    			bestScore = score;
     			bestMove = cols;
     		}
     	}
 	    return bestMove;
     }
-	
+
     /**
      * Method to check if there is a vertical win, determines if vertical length is equal to win length
      * @return success of vertical win
      * @author madisongipson */
-    public boolean checkVerticalWin() 
+    public boolean checkVerticalWin()
     {
-    	if(myLastPoint != null)
-    	{
-    	for(int rows=0; rows<myNumRows-myWinLength+1; rows++)
-    	{	
-    		for(int cols=0; cols<myNumColumns; cols++)
-    		{
-    			if(myBoard[cols][rows] != null)
-    			{
-    				for(int win=1; win<myWinLength; win++)
-    				{
-    					myWinBegin = new Point(cols, rows);
-    					if(myBoard[cols][rows] != myBoard[cols][rows+win])
-    					{
-    						myWinBegin = null;
-    						break;
-    					}
-    					if(win == myWinLength-1)
-    					{
-    						myWinEnd = new Point(cols, rows+myWinLength-1);
-    						return true;
-    					}
-    				}
-    			}
-    		}
-    	}
-    	}
-	    return false;
+    	return checkIfWin() && myWinDirection == VERTICAL;
     }
-	
+
     /**
      * Method to check if there is a horizontal win, determines if horizontal length is equal to win length
      * @return success of horizontal win
      * @author madisongipson */
-    public boolean checkHorizontalWin() 
+    public boolean checkHorizontalWin()
     {
-    	if(myLastPoint != null)
-    	{	
-    		int rows = myLastPoint.x; 
-    		for(int cols=0; cols<myNumColumns-myWinLength+1; cols++)
-    		{
-    			if(myBoard[cols][rows] != null)
-    			{
-    				for(int win=1; win<myWinLength; win++)
-    				{
-    					myWinBegin = new Point(cols, rows);
-    					if(myBoard[cols][rows] != myBoard[cols+win][rows])
-    					{
-    						myWinBegin = null;
-    						break;
-    					}
-    					if(win == myWinLength-1)
-    					{
-    						myWinEnd = new Point(cols+myWinLength-1, rows);
-    						return true;
-    					}
-    				}
-    			}
-    		}
-    	}
-    	return false;
+    	return checkIfWin() && myWinDirection == HORIZONTAL;
     }
-	
+
     /**
      * Method to check if there is a diagonal win, determines if diagonal length is equal to win length
      * @return success of diagonal win
      * @author madisongipson */
-    public boolean checkDiagonalWin() 
+    public boolean checkDiagonalWin()
     {
-    	for(int rows=0; rows<myNumRows; rows++)
-    	{	
-    		for(int cols=0; cols<myNumColumns; cols++)
+    	return checkIfWin() && (myWinDirection == DIAGONAL_UP || myWinDirection == DIAGONAL_DOWN);
+    }
+
+    /**
+     * Method to look for a win along the four lines through the last piece placed,
+     * recording the direction & where the win begins & ends
+     * @return success of win through the last piece
+     * @author madisongipson */
+    private boolean findWinThroughLastPiece()
+    {
+    	int last = myLastColumn*myColumnHeight + myLastRow;
+    	int slot = isSet(0, last)? 0 : myNumTypes-1; //last piece may belong to the other type
+    	return findWinThrough(slot, last, true) > -1;
+    }
+
+    /**
+     * Method to walk the four lines through a spot, counting the spot itself as the
+     * piece type's whether or not it is on the board yet
+     * @param slot of piece type, bit of the spot & whether to record the win's direction,
+     * beginning & end
+     * @return direction of the win, -1 if there is none
+     * @author madisongipson */
+    private int findWinThrough(int slot, int spot, boolean record)
+    {
+    	int numBits = myColumnHeight*myNumColumns;
+    	for(int direction=0; direction<myDirections.length; direction++)
+    	{
+    		int shift = myDirections[direction];
+    		int begin = spot;
+    		int length = 1;
+    		while(length < myWinLength && begin-shift > -1 && isSet(slot, begin-shift)) //count backwards
     		{
-    			if(myBoard[cols][rows] != null)
+    			begin -= shift;
+    			length++;
+    		}
+    		int end = spot;
+    		while(length < myWinLength && end+shift < numBits && isSet(slot, end+shift)) //count forwards
+    		{
+    			end += shift;
+    			length++;
+    		}
+    		if(length == myWinLength)
+    		{
+    			if(record)
     			{
-    				for(int win=1; win<myWinLength; win++)
-    				{
-    					myWinBegin = new Point(cols, rows);
-    					if((cols+win) == myNumColumns || (rows+win) == myNumRows || myBoard[cols][rows] != myBoard[cols+win][rows+win])
-    					{
-    						myWinBegin = null;
-    						break;
-    					}
-    					if(win == myWinLength-1)
-    					{
-    						myWinEnd = new Point(cols+myWinLength-1, rows+myWinLength-1);
-    						return true;
-    					}
-    				}
-    				for(int win=1; win<myWinLength; win++)
-    				{
-    					myWinBegin = new Point(cols, rows);
-    					if((cols+win)==myNumColumns || rows-win==-1 || myBoard[cols][rows] != myBoard[cols+win][rows-win])
-    					{
-    						myWinBegin = null;
-    						break;
-    					}
-    					if(win == myWinLength-1)
-    					{
-    						myWinEnd = new Point(cols+myWinLength-1, rows-myWinLength+1);
-    						return true;
-    					}
-    				}
+    				myWinDirection = direction;
+    				myWinBegin = begin; //bits, turned into spots only when asked for
+    				myWinEnd = end;
     			}
+    			return direction;
     		}
     	}
-    	return false;
+    	return -1;
     }
-    
+
     /**
-     * Method to count the horizontal length that connects with the last piece placed
-     * @param column of piece placed & piece type of piece placed
-     * @return horizontal length
+     * Method to check one bit of a piece type's bitboard
+     * @param slot of piece type & bit of the spot
+     * @return truth value of the piece type having a piece there
      * @author madisongipson */
-    private int countHorizontalLengthIfPiecePlaced(int col, PieceType type) 
+    private boolean isSet(int slot, int bit)
     {
-    	int horizontalLength = 0;
-    	int placeHolder = 0;
-    	for(int rows = myNumRows-1; rows>0; rows--)
+    	if(myWideBits == null)
     	{
-    		if(myBoard[col][rows] == null && myBoard[col][rows-1] != null)
-    		{
-    			placeHolder = rows;
-    			break;
-    		}
+    		return (myPlayerBits[slot] & (1L << bit)) != 0;
     	}
-    	for(int cols = col-1; cols>-1; cols--)
+    	return (myWideBits[slot][bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Method to find every spot that begins a run of win length in one direction, using
+     * shifts & masks only: the run length doubles each step until it reaches win length
+     * @param bitboard of one piece type & bit distance between neighboring spots
+     * @return bitboard of the spots that begin a run
+     * @author madisongipson */
+    private long findRunStarts(long bits, int shift)
+    {
+    	long run = bits;
+    	int length = 1;
+    	while(length*2 <= myWinLength)
     	{
-    		if(myBoard[cols][placeHolder] == type)
-    		{
-    			horizontalLength++;
-    		}
-    		else
+    		if(shift*length >= Long.SIZE)
     		{
-    			break;
+    			return 0; //shift counts wrap at 64, & a run this long can't fit on the board anyway
     		}
+    		run &= run >>> (shift*length); //run now covers twice the length
+    		length *= 2;
     	}
-    	for(int cols = col+1; cols<myNumColumns; cols++)
+    	if(length < myWinLength)
     	{
-    		if(myBoard[cols][placeHolder] == type)
-    		{
-    			horizontalLength++;
-    		}
-    		else
+    		if(shift*(myWinLength-length) >= Long.SIZE)
     		{
-    			break;
+    			return 0;
     		}
+    		run &= run >>> (shift*(myWinLength-length)); //overlapping runs cover the rest
     	}
-	    return horizontalLength;
+    	return run;
     }
-	
+
     /**
-     * Method to count the vertical length that connects with the last piece placed
-     * @param column of piece placed & piece type of piece placed
-     * @return vertical length
+     * Method to find the spots that begin a run of win length on a wide board, the same
+     * way as for one long: the run length doubles each step until it reaches win length.
+     * The words go through myRunWords, so it holds the run starts afterwards
+     * @param words of one piece type's bitboard & bit distance between neighboring spots
+     * @return truth value of any spot beginning a run
      * @author madisongipson */
-    private int countVerticalLengthIfPiecePlaced(int col, PieceType type) 
+    private boolean findRunStarts(long[] bits, int shift)
     {
-    	int verticalLength = 1;
-    	int placeHolder = 0;
-    	for(int rows = myNumRows-1; rows>0; rows--)
+    	long[] run = myRunWords;
+    	System.arraycopy(bits, 0, run, 0, run.length);
+    	int length = 1;
+    	while(length*2 <= myWinLength)
     	{
-    		if(myBoard[col][rows] == null && myBoard[col][rows-1] != null)
+    		if(!andShifted(run, shift*length))
     		{
-    			placeHolder = rows;
-    			break;
+    			return false; //no shorter run left, so no full run either
     		}
+    		length *= 2;
     	}
-    	for(int rows = placeHolder-1; rows>-1; rows--)
+    	if(length < myWinLength)
     	{
-    		if(myBoard[col][rows] == type)
-    		{
-    			verticalLength++;
-    		}
-    		else
-    		{
-    			break;
-    		}
+    		return andShifted(run, shift*(myWinLength-length));
     	}
-	    return verticalLength;
+    	return true;
     }
-	
+
     /**
-     * Method to count the diagonal length that connects with the last piece placed
-     * @param column of piece placed & piece type of piece placed
-     * @return diagonal length
+     * Method to AND words with themselves shifted down by a number of bits, in place.
+     * Each word only reads words at or above its own index, which are not written yet,
+     * and the simple counted loops leave the JIT free to unroll & vectorize them
+     * @param words to shift & AND, and number of bits to shift by
+     * @return truth value of any bit being left
      * @author madisongipson */
-    private int countDiagonalLengthIfPiecePlaced(int col, PieceType type) 
+    private static boolean andShifted(long[] words, int distance)
     {
-    	int diagonalRightLength = 1;
-    	int diagonalLeftLength = 1;
-    	int placeHolder = 0;
-    	for(int rows = myNumRows-1; rows>0; rows--)
+    	int wordShift = distance >>> 6;
+    	int bitShift = distance & 63;
+    	int kept = words.length - wordShift; //words that still have a shifted word to AND with
+    	if(kept < 1)
     	{
-    		if(myBoard[col][rows] == null && myBoard[col][rows-1] != null)
-    		{
-    			placeHolder = rows;
-    			break;
-    		}
+    		Arrays.fill(words, 0L);
+    		return false;
     	}
-    	for(int delta = 1; delta<myWinLength; delta++)
+    	if(bitShift == 0)
     	{
-    		if(col+delta<myNumColumns && placeHolder+delta<myNumRows && myBoard[col+delta][placeHolder+delta] == type)
+    		for(int i=0; i<kept; i++)
     		{
-    			diagonalRightLength++;
+    			words[i] &= words[i+wordShift];
     		}
-    		else
-    			break;
     	}
-    	for(int delta = 1; delta<myWinLength; delta++)
+    	else
     	{
-    		if(col-delta>-1 && placeHolder-delta>-1 && myBoard[col-delta][placeHolder-delta] == type)
+    		for(int i=0; i<kept-1; i++)
     		{
-    			diagonalRightLength++;
+    			words[i] &= (words[i+wordShift] >>> bitShift) | (words[i+wordShift+1] << (Long.SIZE-bitShift));
     		}
-    		else
-    			break;
+    		words[kept-1] &= words[words.length-1] >>> bitShift;
     	}
-    	for(int delta = 1; delta<myWinLength; delta++)
+    	Arrays.fill(words, kept, words.length, 0L);
+    	long any = 0;
+    	for(int i=0; i<kept; i++)
     	{
-    		if(col+delta<myNumColumns && placeHolder-delta>-1 && myBoard[col+delta][placeHolder-delta] == type)
-    		{
-    			diagonalLeftLength++;
-    		}
-    		else
-    			break;
+    		any |= words[i];
+    	}
+    	return any != 0;
+    }
+
+    /**
+     * Method to give every piece type & spot its own random key. The keys come from a
+     * fixed seed so the same position always hashes the same, even across runs
+     * @author madisongipson */
+    private void setZobristKeys()
+    {
+    	myZobristKeys = new long[myNumTypes*myColumnHeight*myNumColumns];
+    	long state = ZOBRIST_SEED;
+    	for(int i=0; i<myZobristKeys.length; i++)
+    	{
+    		state += 0x9E3779B97F4A7C15L; //splitmix64
+    		long key = (state ^ (state >>> 30)) * 0xBF58476D1CE4E5B9L;
+    		key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+    		myZobristKeys[i] = key ^ (key >>> 31);
     	}
-    	for(int delta = 1; delta<myWinLength; delta++)
+    }
+
+    /**
+     * Method to find the piece type at a spot on the board
+     * @param column & row of spot
+     * @return piece type at the spot, null if spot is empty
+     * @author madisongipson */
+    public PieceType getPieceAt(int col, int row)
+    {
+    	int bit = col*myColumnHeight + row;
+    	for(int slot=0; slot<myNumTypes; slot++)
     	{
-    		if(col-delta>-1 && placeHolder+delta<myNumRows && myBoard[col-delta][placeHolder+delta] == type)
+    		if(isSet(slot, bit))
     		{
-    			diagonalLeftLength++;
+    			return mySlotTypes[slot];
     		}
-    		else
-    			break;
     	}
-    	return (diagonalRightLength>diagonalLeftLength)? diagonalRightLength:diagonalLeftLength;   
+    	return null;
     }
-	
-    public Vector<PieceType> getTypes() 
+
+    public Vector<PieceType> getTypes()
     {
 	    return myTypes;
     }
-	
-    public Point getWinBegin() 
+
+    public Spot getWinBegin()
     {
-    	return myWinBegin;
+    	return myWinBegin < 0? null : new Spot(myWinBegin/myColumnHeight, myWinBegin%myColumnHeight);
     }
-	
-    public Point getWinEnd()
+
+    public Spot getWinEnd()
     {
-    	return myWinEnd;
+    	return myWinEnd < 0? null : new Spot(myWinEnd/myColumnHeight, myWinEnd%myColumnHeight);
     }
-	
-    public Point getLastPoint() 
+
+    /**
+     * Method to get every spot of the win, from its beginning to its end
+     * @return spots of the win in order, null if there is no win
+     * @author madisongipson */
+    public Spot[] getWinSpots()
     {
-	    return myLastPoint;
+    	if(myWinBegin < 0)
+    	{
+    		return null;
+    	}
+    	int shift = myDirections[myWinDirection];
+    	Spot[] spots = new Spot[(myWinEnd-myWinBegin)/shift + 1];
+    	for(int i=0; i<spots.length; i++)
+    	{
+    		int bit = myWinBegin + i*shift;
+    		spots[i] = new Spot(bit/myColumnHeight, bit%myColumnHeight);
+    	}
+    	return spots;
+    }
+
+    public Spot getLastSpot()
+    {
+    	if(myLastColumn < 0)
+    	{
+    		return null;
+    	}
+	    return new Spot(myLastColumn, myLastRow);
     }
-    
+
     public int getLastRow()
     {
     	return myLastRow;
     }
-	
-    public PieceType getPieceOnBoard(Point point) 
+
+    public PieceType getPieceOnBoard(Spot spot)
     {
-    	return myBoard[point.x][point.y]; //x and y values of point passed in
+    	return getPieceAt(spot.getColumn(), spot.getRow());
     }
-	
-    public PieceType[][] getBoard() 
+
+    /**
+     * Method to copy the bitboards into a grid of piece types
+     * @return grid of piece types indexed by column then row
+     * @author madisongipson */
+    public PieceType[][] getBoard()
     {
-	    return myBoard;
+    	PieceType[][] board = new PieceType[myNumColumns][myNumRows];
+    	for(int i=0; i< myNumColumns; i++)
+    	{
+    		for(int j=0; j< myHeights[i]; j++)
+    		{
+    			board[i][j] = getPieceAt(i, j);
+    		}
+    	}
+	    return board;
     }
-    
+
     public int getWinLength()
     {
     	return myWinLength;
     }
-	
+
+    public int getNumRows()
+    {
+    	return myNumRows;
+    }
+
+    public int getNumColumns()
+    {
+    	return myNumColumns;
+    }
+
+    public int getNumMoves()
+    {
+    	return myNumMoves;
+    }
+
+    /**
+     * Method to read the move history
+     * @param ply, the number of pieces placed before the move
+     * @return column of the move
+     * @author madisongipson */
+    public int getMoveColumn(int ply)
+    {
+    	checkPly(ply);
+    	return myHistory[ply] >>> 1;
+    }
+
+    /**
+     * Method to read the move history
+     * @param ply, the number of pieces placed before the move
+     * @return slot of the piece type that moved
+     * @author madisongipson */
+    public int getMoveSlot(int ply)
+    {
+    	checkPly(ply);
+    	return myHistory[ply] & 1;
+    }
+
+    private void checkPly(int ply)
+    {
+    	if(ply < 0 || ply >= myNumMoves)
+    	{
+    		throw new IndexOutOfBoundsException("Move "+ply+" of "+myNumMoves+" moves");
+    	}
+    }
+
+    /**
+     * Method to get the Zobrist hash of the pieces on the board, which is kept up to date
+     * as pieces are placed & taken back
+     * @return hash of the position
+     * @author madisongipson */
+    public long getHash()
+    {
+    	return myHash;
+    }
+
+    /**
+     * Method to get the bitboard of one piece type, for code that works on the bits directly
+     * @param slot of piece type
+     * @return bitboard of the piece type's pieces, in the layout described above
+     * @throws IllegalStateException if the board is wide & does not fit in one long
+     * @author madisongipson */
+    public long getBitboard(int slot)
+    {
+    	if(myWideBits != null)
+    	{
+    		throw new IllegalStateException("A "+myNumRows+"x"+myNumColumns+" board does not fit in one bitboard");
+    	}
+    	return myPlayerBits[slot];
+    }
+
+    /**
+     * Method to find the slot the board keeps a piece type's pieces in
+     * @param piece type
+     * @return slot of piece type, -1 if the board does not use that type
+     * @author madisongipson */
+    public int getSlot(PieceType type)
+    {
+    	return mySlots[type.ordinal()];
+    }
+
+    public int getOpponentSlot(int slot)
+    {
+    	return myNumTypes-1-slot;
+    }
+
     /**
      * Method to check if the board is full
      * @return status of the board being full
      * @author madisongipson */
-    public boolean isBoardFull() 
+    public boolean isBoardFull()
     {
-	   for(int i=0; i< myNumColumns; i++) //loop through columns
-	   {
-		   for(int j=0; j< myNumRows; j++) //loop through rows
-		   {
-			   if(myBoard[i][j] == null) //check if spot is empty
-			   {
-				   return false; //if spot is empty, then board cannot be full
-			   }
-		   }
-	   }
-	   return true;
+	   return myNumMoves == myNumRows*myNumColumns;
     }
-	
+
     /**
      * Method to check if the column is full
      * @param column being checked
      * @return status of the column being full
      * @author madisongipson */
-    public boolean isColumnFull(int col) 
+    public boolean isColumnFull(int col)
     {
-    	for(int i=0; i< myNumRows; i++) //loop through rows
- 	   {
-    		if(myBoard[col][i] == null) //check if spot is empty in all rows of passed in column
-    		{
-    			return false; //if spot is empty, then column cannot be full
-    		}
- 	   }
-    	return true;
+    	return myHeights[col] == myNumRows;
     }
-	
-    public boolean getIsAWin() 
+
+    public boolean getIsAWin()
     {
 	    return myIsAWin;
     }
-    
+
     /**
      * Method to check if the board is empty
      * @return status of the board being empty
      * @author madisongipson */
     public boolean checkAllNull()
     {
-    	for(int i=0; i< myNumColumns; i++) //loop through columns
- 	    {
- 		   for(int j=0; j< myNumRows; j++) //loop through rows
- 		   {
- 			   if(myBoard[i][j] != null) //check if spot is filled
- 			   {
- 				   return false; //if spot is filled, then all spots cannot be null
- 			   }
- 		   }
- 	   }
+    	if(myNumMoves != 0)
+    	{
+    		return false; //if a spot is filled, then all spots cannot be null
+    	}
        myIsAWin= false;
+       myWinPly = -1;
  	   return true;
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,5 @@
 package connectmodel;
 
-import java.awt.Point;
 import java.util.Vector;
 
 /**
@@ -22,15 +21,19 @@ public class GameEngine
 	private ComputerPlayer myComputerPlayer;
   
 	public GameEngine(Player player, GameBoard gameboard) 
+	{
+		this(player, new ComputerPlayer("Opponent", gameboard.getTypes().lastElement(), gameboard), gameboard);
+	}
+	
+	public GameEngine(Player player, ComputerPlayer computer, GameBoard gameboard) 
 	{
 		myGameBoard = gameboard;
 		myStartingPlayer = player;
 		myPlayerUp = player;
 		myPlayers = new Vector<Player>(2, 1);
 		myPlayers.add(0, player);
-		myComputerPlayer = new ComputerPlayer("Opponent", PieceType.BLACK, myGameBoard);
+		myComputerPlayer = computer;
 		myPlayers.add(1, myComputerPlayer);
-		
 	}
 
 	 /**
@@ -72,6 +75,24 @@ public class GameEngine
 		return false;
 	}
 	
+	 /**
+	    * Method to start the game with a chosen player going first, such as when a
+	    * saved game is set up again
+	    * @param player to go first
+	    * @return success of game starting
+	    * @author madisongipson */
+	public boolean startGame(Player startingPlayer)
+	{
+		if(myGameBoard != null && myPlayers.contains(startingPlayer))
+		{
+			myPlayerUp = startingPlayer;
+			myStartingPlayer = startingPlayer;
+			myGameBoard.resetBoard();
+			return true;
+		}
+		return false;
+	}
+	
 	 /**
 	    * Method to switch players
 	    * @return switched player
@@ -90,12 +111,7 @@ public class GameEngine
 	    * @author madisongipson */
 	public boolean placePiece(int column)
 	{
-		myGameBoard.placePiece(column, myPlayerUp.getPieceType()); //piece type of the current player placed in column
-		if(myGameBoard.checkAllNull() == false) //if not all spots are filled, then piece was placed
-		{
-			return true;
-		}
-		return false;
+		return myGameBoard.placePiece(column, myPlayerUp.getPieceType()); //piece type of the current player placed in column
 	}
 
 	public Player getPlayerUp() 
@@ -123,4 +139,9 @@ public class GameEngine
 		return myGameBoard;
 	}
 	
+	public ComputerPlayer getComputerPlayer()
+	{
+		return myComputerPlayer;
+	}
+	
 }
\ No newline at end of file
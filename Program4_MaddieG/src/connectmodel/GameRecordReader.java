@@ -0,0 +1,327 @@
+package connectmodel;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * @purpose GameRecordReader reads a game record file written by GameRecordWriter.
+ * The file is memory-mapped read only, in pieces of up to a gigabyte that each start
+ * on a block, so files of any size can be read and games are decoded straight out of
+ * the mapping: a Cursor walks the games without copying or allocating anything.
+ * Opening a file only walks the block headers, so the blocks can then be handed out
+ * to several threads, each with its own Cursor. A block cut short by a crash while it
+ * was being appended is left out, along with everything after it.
+ * @author madisongipson
+ *
+ * @input Game record file written by GameRecordWriter.
+ * @output Board size, win length & piece types of the file, then its games.
+ */
+
+public class GameRecordReader
+{
+	public static final int MAGIC = 0x43344752; //"C4GR"
+	public static final int VERSION = 1;
+	public static final int HEADER_BYTES = 32;
+	public static final int BLOCK_HEADER_BYTES = 8;
+	public static final int BLOCK_BYTES = 64*1024;
+	public static final int PACKED_COLUMNS = 16; //a column fits in 4 bits
+	public static final int MAX_VARINT_BYTES = 5;
+	public static final int DRAW = 2;
+	public static final int UNFINISHED = 3;
+	private static final long MAX_MAP_BYTES = 1L << 30;
+
+	private MappedByteBuffer[] myChunks;
+	private int myNumChunks;
+	private int[] myBlockChunks; //chunk holding each block
+	private int[] myBlockOffsets; //offset of each block's header in its chunk
+	private int myNumBlocks;
+	private long myNumGames;
+	private long myValidBytes;
+	private int myNumRows;
+	private int myNumColumns;
+	private int myWinLength;
+	private PieceType[] myTypes;
+	private boolean myIsPacked;
+
+	/**
+	* Opens & maps a game record file
+	* @param fileName path of the record file
+	* @throws IOException if the file cannot be read or is not a game record file
+	*/
+	public GameRecordReader(String fileName) throws IOException
+	{
+		myChunks = new MappedByteBuffer[1];
+		myBlockChunks = new int[16];
+		myBlockOffsets = new int[16];
+		try(RandomAccessFile file = new RandomAccessFile(fileName, "r"); FileChannel channel = file.getChannel())
+		{
+			long size = channel.size();
+			MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_MAP_BYTES)); //stays mapped after close
+			if(chunk.capacity() < HEADER_BYTES || chunk.getInt(0) != MAGIC || chunk.getInt(4) != VERSION)
+			{
+				throw new IOException(fileName+" is not a game record file");
+			}
+			myNumRows = chunk.getInt(8);
+			myNumColumns = chunk.getInt(12);
+			myWinLength = chunk.getInt(16);
+			PieceType[] values = PieceType.values();
+			int first = chunk.get(20);
+			int second = chunk.get(21);
+			if(first < 0 || first >= values.length || second < 0 || second >= values.length)
+			{
+				throw new IOException(fileName+" names piece types that don't exist");
+			}
+			myTypes = new PieceType[] {values[first], values[second]};
+			myIsPacked = myNumColumns <= PACKED_COLUMNS;
+			addChunk(chunk);
+			long chunkStart = 0;
+			long position = HEADER_BYTES;
+			while(position + BLOCK_HEADER_BYTES <= size)
+			{
+				if(position + BLOCK_HEADER_BYTES > chunkStart + chunk.capacity())
+				{
+					chunkStart = position;
+					chunk = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, Math.min(size-chunkStart, MAX_MAP_BYTES));
+					addChunk(chunk);
+				}
+				int length = chunk.getInt((int)(position-chunkStart));
+				long end = position + BLOCK_HEADER_BYTES + length;
+				if(length < 0 || end > size)
+				{
+					break; //cut short while being appended
+				}
+				if(end > chunkStart + chunk.capacity())
+				{
+					if(BLOCK_HEADER_BYTES + (long)length > MAX_MAP_BYTES)
+					{
+						throw new IOException(fileName+" has a block too big to map");
+					}
+					chunkStart = position;
+					chunk = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, Math.min(size-chunkStart, MAX_MAP_BYTES));
+					addChunk(chunk);
+				}
+				addBlock((int)(position-chunkStart));
+				myNumGames += chunk.getInt((int)(position-chunkStart) + 4);
+				position = end;
+			}
+			myValidBytes = position;
+		}
+	}
+
+	private void addChunk(MappedByteBuffer chunk)
+	{
+		if(myNumChunks == myChunks.length)
+		{
+			myChunks = Arrays.copyOf(myChunks, myNumChunks*2);
+		}
+		myChunks[myNumChunks++] = chunk;
+	}
+
+	private void addBlock(int offset)
+	{
+		if(myNumBlocks == myBlockOffsets.length)
+		{
+			myBlockChunks = Arrays.copyOf(myBlockChunks, myNumBlocks*2);
+			myBlockOffsets = Arrays.copyOf(myBlockOffsets, myNumBlocks*2);
+		}
+		myBlockChunks[myNumBlocks] = myNumChunks-1;
+		myBlockOffsets[myNumBlocks++] = offset;
+	}
+
+	/**
+	* Method to make a cursor over every game in the file; each thread needs its own
+	* @return cursor before the first game
+	* @author madisongipson */
+	public Cursor newCursor()
+	{
+		Cursor cursor = new Cursor();
+		cursor.seek(0, myNumBlocks);
+		return cursor;
+	}
+
+	/**
+	* Method to get the number of games in one block, to split the blocks evenly
+	* @param block from 0 to getNumBlocks()-1
+	* @return games in the block
+	* @author madisongipson */
+	public int getBlockGames(int block)
+	{
+		return myChunks[myBlockChunks[block]].getInt(myBlockOffsets[block] + 4);
+	}
+
+	public int getNumBlocks()
+	{
+		return myNumBlocks;
+	}
+
+	public long getNumGames()
+	{
+		return myNumGames;
+	}
+
+	/**
+	* Method to get the length of the file up to the end of its last whole block,
+	* where a writer appending to it must start
+	* @return bytes of header & whole blocks
+	* @author madisongipson */
+	public long getValidBytes()
+	{
+		return myValidBytes;
+	}
+
+	public int getNumRows()
+	{
+		return myNumRows;
+	}
+
+	public int getNumColumns()
+	{
+		return myNumColumns;
+	}
+
+	public int getWinLength()
+	{
+		return myWinLength;
+	}
+
+	/**
+	* Method to get the piece type playing in a slot
+	* @param slot 0 or 1
+	* @return piece type of the slot
+	* @author madisongipson */
+	public PieceType getType(int slot)
+	{
+		return myTypes[slot];
+	}
+
+	/**
+	 * Walks the games of a range of blocks, decoding each one in place in the mapping.
+	 */
+	public class Cursor
+	{
+		private MappedByteBuffer myBuffer;
+		private int myBlock;
+		private int myEndBlock;
+		private int myPosition;
+		private int myBlockEnd;
+		private int myMovesStart;
+		private int myNumMoves;
+		private int myStartSlot;
+		private int myResult;
+
+		private Cursor()
+		{
+		}
+
+		/**
+		* Method to move the cursor before the first game of a range of blocks
+		* @param first block & block after the last
+		* @author madisongipson */
+		public void seek(int firstBlock, int endBlock)
+		{
+			if(firstBlock < 0 || endBlock > myNumBlocks || firstBlock > endBlock)
+			{
+				throw new IndexOutOfBoundsException("Blocks "+firstBlock+" to "+endBlock+" of "+myNumBlocks+" blocks");
+			}
+			myBlock = firstBlock;
+			myEndBlock = endBlock;
+			myPosition = 0;
+			myBlockEnd = 0;
+			myNumMoves = 0;
+		}
+
+		/**
+		* Method to move to the next game
+		* @return truth value of there being another game in the range
+		* @author madisongipson */
+		public boolean next()
+		{
+			while(myPosition >= myBlockEnd)
+			{
+				if(myBlock >= myEndBlock)
+				{
+					return false;
+				}
+				myBuffer = myChunks[myBlockChunks[myBlock]];
+				myPosition = myBlockOffsets[myBlock] + BLOCK_HEADER_BYTES;
+				myBlockEnd = myPosition + myBuffer.getInt(myPosition - BLOCK_HEADER_BYTES);
+				myBlock++;
+			}
+			int value = 0;
+			int shift = 0;
+			byte next;
+			do
+			{
+				next = myBuffer.get(myPosition++);
+				value |= (next & 0x7F) << shift;
+				shift += 7;
+			}
+			while(next < 0);
+			myNumMoves = value >>> 3;
+			myStartSlot = value >>> 2 & 1;
+			myResult = value & 3;
+			myMovesStart = myPosition;
+			myPosition += myIsPacked? (myNumMoves+1)/2 : myNumMoves;
+			return true;
+		}
+
+		public int getNumMoves()
+		{
+			return myNumMoves;
+		}
+
+		public int getStartSlot()
+		{
+			return myStartSlot;
+		}
+
+		/**
+		* Method to get how the game ended
+		* @return slot that won, DRAW, or UNFINISHED
+		* @author madisongipson */
+		public int getResult()
+		{
+			return myResult;
+		}
+
+		/**
+		* Method to read a move of the game; the players take turns from the start slot
+		* @param ply, the number of pieces placed before the move
+		* @return column of the move
+		* @author madisongipson */
+		public int getMove(int ply)
+		{
+			if(ply < 0 || ply >= myNumMoves)
+			{
+				throw new IndexOutOfBoundsException("Move "+ply+" of "+myNumMoves+" moves");
+			}
+			if(myIsPacked)
+			{
+				int pair = myBuffer.get(myMovesStart + (ply >> 1));
+				return (ply & 1) == 0? pair >>> 4 & 0xF : pair & 0xF;
+			}
+			return myBuffer.get(myMovesStart + ply) & 0xFF;
+		}
+
+		/**
+		* Method to play the game out on a board, after clearing it
+		* @param game board of the file's size & piece types
+		* @return success of placing every move
+		* @author madisongipson */
+		public boolean replay(GameBoard gameboard)
+		{
+			gameboard.resetBoard();
+			for(int ply=0; ply<myNumMoves; ply++)
+			{
+				if(!gameboard.placePiece(getMove(ply), myTypes[(myStartSlot + ply) & 1]))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
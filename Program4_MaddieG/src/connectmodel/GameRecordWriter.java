@@ -0,0 +1,204 @@
+package connectmodel;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * @purpose GameRecordWriter appends finished games to a game record file that
+ * GameRecordReader can map. The file starts with a header giving the board size, win
+ * length & both piece types, so records hold only moves. Games are written in blocks:
+ * a block is its length in bytes & number of games, then the games, so a reader can
+ * skip or split the file a block at a time. A game is one varint (7 bits per byte,
+ * high bit set when more bytes follow) holding its number of moves, the slot that
+ * moved first & the result, then its columns, two to a byte when the board has at most
+ * 16 columns & one per byte otherwise. A 6x7 game takes about half a byte per move.
+ * Opening an existing file appends to it, as long as its header matches, after
+ * dropping any block left half written by a crash.
+ * @author madisongipson
+ *
+ * @input Record file name, board size, win length & piece types, then finished games.
+ * @output Game record file.
+ */
+
+public class GameRecordWriter implements Closeable
+{
+	private OutputStream myOutput;
+	private int myNumRows;
+	private int myNumColumns;
+	private boolean myIsPacked; //two moves to a byte
+	private int myMaxRecordBytes;
+	private byte[] myBlock;
+	private int myLength;
+	private int myNumGames;
+
+	/**
+	* Opens a record file, writing the header if the file is new or empty
+	* @param fileName path of the record file
+	* @param rows, cols & winLength of the board every game is played on
+	* @param types piece types of the first & second slot
+	* @throws IOException if the file can't be written or holds games of another kind
+	*/
+	public GameRecordWriter(String fileName, int rows, int cols, int winLength, PieceType[] types) throws IOException
+	{
+		GameBoard.checkSize(rows, cols, winLength);
+		myNumRows = rows;
+		myNumColumns = cols;
+		myIsPacked = cols <= GameRecordReader.PACKED_COLUMNS;
+		myMaxRecordBytes = GameRecordReader.MAX_VARINT_BYTES + (myIsPacked? (rows*cols+1)/2 : rows*cols);
+		myBlock = new byte[getBlockBytes()];
+		File file = new File(fileName);
+		boolean isNew = !file.isFile() || file.length() == 0;
+		if(!isNew)
+		{
+			GameRecordReader existing = new GameRecordReader(fileName);
+			if(existing.getNumRows() != rows || existing.getNumColumns() != cols || existing.getWinLength() != winLength
+					|| existing.getType(0) != types[0] || existing.getType(1) != types[1])
+			{
+				throw new IOException(fileName+" holds games of another board or piece types");
+			}
+			if(existing.getValidBytes() < file.length())
+			{
+				try(RandomAccessFile torn = new RandomAccessFile(file, "rw"))
+				{
+					torn.setLength(existing.getValidBytes()); //drops a block cut short by a crash
+				}
+			}
+		}
+		myOutput = new BufferedOutputStream(new FileOutputStream(file, true));
+		if(isNew)
+		{
+			DataOutputStream header = new DataOutputStream(myOutput);
+			header.writeInt(GameRecordReader.MAGIC);
+			header.writeInt(GameRecordReader.VERSION);
+			header.writeInt(rows);
+			header.writeInt(cols);
+			header.writeInt(winLength);
+			header.writeByte(types[0].ordinal());
+			header.writeByte(types[1].ordinal());
+			header.writeShort(0);
+			header.writeLong(0); //pads the header to GameRecordReader.HEADER_BYTES
+		}
+	}
+
+	/**
+	* Method to add a finished game, read from the board's move history, to the block
+	* being filled; full blocks are written out. Not safe to call from several threads,
+	* they should each fill their own block with encode() & hand it to writeBlock()
+	* @param game board the game was played on & result: the winning slot, or
+	* GameRecordReader.DRAW or UNFINISHED
+	* @author madisongipson */
+	public void writeGame(GameBoard gameboard, int result) throws IOException
+	{
+		if(myLength + myMaxRecordBytes > myBlock.length)
+		{
+			writeBlock(myBlock, myLength, myNumGames);
+			myLength = 0;
+			myNumGames = 0;
+		}
+		myLength = encode(myBlock, myLength, gameboard, result);
+		myNumGames++;
+	}
+
+	/**
+	* Method to encode a game into a buffer; safe to call from any thread
+	* @param buffer, offset to write at (with at least getMaxRecordBytes() free),
+	* game board the game was played on & result
+	* @return offset after the game
+	* @author madisongipson */
+	public int encode(byte[] buffer, int offset, GameBoard gameboard, int result)
+	{
+		if(gameboard.getNumRows() != myNumRows || gameboard.getNumColumns() != myNumColumns)
+		{
+			throw new IllegalArgumentException("A "+gameboard.getNumRows()+"x"+gameboard.getNumColumns()+" game does not belong in this file");
+		}
+		int moves = gameboard.getNumMoves();
+		int startSlot = moves > 0? gameboard.getMoveSlot(0) : 0;
+		int value = moves << 3 | startSlot << 2 | result;
+		while((value & ~0x7F) != 0)
+		{
+			buffer[offset++] = (byte)(value | 0x80);
+			value >>>= 7;
+		}
+		buffer[offset++] = (byte)value;
+		if(myIsPacked)
+		{
+			for(int ply=0; ply<moves; ply+=2)
+			{
+				int low = ply+1 < moves? gameboard.getMoveColumn(ply+1) : 0;
+				buffer[offset++] = (byte)(gameboard.getMoveColumn(ply) << 4 | low);
+			}
+		}
+		else
+		{
+			for(int ply=0; ply<moves; ply++)
+			{
+				buffer[offset++] = (byte)gameboard.getMoveColumn(ply);
+			}
+		}
+		return offset;
+	}
+
+	/**
+	* Method to append a block of encoded games to the file
+	* @param buffer of encoded games, its length in bytes & number of games in it
+	* @author madisongipson */
+	public synchronized void writeBlock(byte[] buffer, int length, int games) throws IOException
+	{
+		if(games == 0)
+		{
+			return;
+		}
+		writeInt(length);
+		writeInt(games);
+		myOutput.write(buffer, 0, length);
+	}
+
+	private void writeInt(int value) throws IOException
+	{
+		myOutput.write(value >>> 24);
+		myOutput.write(value >>> 16);
+		myOutput.write(value >>> 8);
+		myOutput.write(value);
+	}
+
+	/**
+	* Method to write the block being filled & push every byte to the file
+	* @author madisongipson */
+	public synchronized void flush() throws IOException
+	{
+		writeBlock(myBlock, myLength, myNumGames);
+		myLength = 0;
+		myNumGames = 0;
+		myOutput.flush();
+	}
+
+	public void close() throws IOException
+	{
+		flush();
+		myOutput.close();
+	}
+
+	/**
+	* Method to get the most bytes one game can take
+	* @return bytes of the longest possible game
+	* @author madisongipson */
+	public int getMaxRecordBytes()
+	{
+		return myMaxRecordBytes;
+	}
+
+	/**
+	* Method to get the size of the blocks to fill, big enough for the longest game
+	* @return bytes of games per block
+	* @author madisongipson */
+	public int getBlockBytes()
+	{
+		return Math.max(GameRecordReader.BLOCK_BYTES, myMaxRecordBytes);
+	}
+}
@@ -0,0 +1,173 @@
+package connectmodel;
+
+/**
+ * @purpose GameSession runs one game of a player against the computer without any
+ * user interface, so games can be played on servers with -Djava.awt.headless=true.
+ * It wraps a GameEngine & GameBoard: start a game, apply moves, and read the state
+ * and the win or draw result.
+ * @author madisongipson
+ *
+ * @input Player name, piece types, board size and win length.
+ * @output State of the game after every move.
+ */
+
+public class GameSession
+{
+	public enum Status
+	{
+		NOT_STARTED,
+		IN_PROGRESS,
+		WIN,
+		DRAW
+	}
+
+	private GameBoard myGameBoard;
+	private GameEngine myGameEngine;
+	private Player myPlayer;
+	private ComputerPlayer myComputerPlayer;
+	private Status myStatus;
+	private Player myWinner;
+
+	public GameSession(String name, PieceType playerType, PieceType computerType, int rows, int cols, int winLength)
+	{
+		myGameBoard = new GameBoard(rows, cols, winLength, new PieceType[] {playerType, computerType});
+		myPlayer = new Player(name, playerType);
+		myComputerPlayer = new ComputerPlayer("Opponent", computerType, myGameBoard);
+		myGameEngine = new GameEngine(myPlayer, myComputerPlayer, myGameBoard);
+		myStatus = Status.NOT_STARTED;
+	}
+
+	/**
+	* Method to start a new game on an empty board. Like GameEngine, the player who did
+	* not start the last game starts this one
+	* @return player up first
+	* @author madisongipson */
+	public Player startGame()
+	{
+		myGameEngine.startGame();
+		myStatus = Status.IN_PROGRESS;
+		myWinner = null;
+		return myGameEngine.getPlayerUp();
+	}
+
+	/**
+	* Method to set a saved game up again by replaying its moves from an empty board
+	* @param truth value of the computer having moved first, columns played in order
+	* & number of moves
+	* @return success of replaying every move
+	* @author madisongipson */
+	public boolean resumeGame(boolean computerFirst, int[] moves, int numMoves)
+	{
+		myGameEngine.startGame(computerFirst? myComputerPlayer : myPlayer);
+		myStatus = Status.IN_PROGRESS;
+		myWinner = null;
+		for(int ply=0; ply<numMoves; ply++)
+		{
+			if(!applyMove(moves[ply]))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	* Method to check if the computer moved first in the current game
+	* @return truth value of the computer having started
+	* @author madisongipson */
+	public boolean isComputerFirst()
+	{
+		return myGameEngine.getStartingPlayer() == myComputerPlayer;
+	}
+
+	/**
+	* Method to place a piece for the player up, then check for a win or draw & hand
+	* the turn to the other player
+	* @param column to place the piece into
+	* @return success of placing the piece; false if the game is not in progress or the column is full
+	* @author madisongipson */
+	public boolean applyMove(int col)
+	{
+		if(myStatus != Status.IN_PROGRESS || !myGameEngine.placePiece(col))
+		{
+			return false;
+		}
+		if(myGameBoard.checkIfWin())
+		{
+			myStatus = Status.WIN;
+			myWinner = myGameEngine.getPlayerUp();
+			myWinner.incrementScore();
+		}
+		else if(myGameBoard.isBoardFull())
+		{
+			myStatus = Status.DRAW;
+		}
+		else
+		{
+			myGameEngine.switchPlayerUp();
+		}
+		return true;
+	}
+
+	/**
+	* Method to have the computer choose & place its piece when it is up
+	* @return column the computer played, -1 if it is not the computer's turn
+	* @author madisongipson */
+	public int playComputerMove()
+	{
+		if(!isComputerUp())
+		{
+			return -1;
+		}
+		int col = myComputerPlayer.nextMove();
+		return applyMove(col)? col : -1;
+	}
+
+	/**
+	* Method to check if the game is waiting on the computer
+	* @return truth value of the computer being up in a game in progress
+	* @author madisongipson */
+	public boolean isComputerUp()
+	{
+		return myStatus == Status.IN_PROGRESS && myGameEngine.getPlayerUp() == myComputerPlayer;
+	}
+
+	public Status getStatus()
+	{
+		return myStatus;
+	}
+
+	/**
+	* Method to get the winner of the game
+	* @return winning player, null unless the status is WIN
+	* @author madisongipson */
+	public Player getWinner()
+	{
+		return myWinner;
+	}
+
+	public Player getPlayerUp()
+	{
+		return myGameEngine.getPlayerUp();
+	}
+
+	public Player getPlayer()
+	{
+		return myPlayer;
+	}
+
+	public ComputerPlayer getComputerPlayer()
+	{
+		return myComputerPlayer;
+	}
+
+	public GameBoard getGameBoard()
+	{
+		return myGameBoard;
+	}
+
+	public GameEngine getGameEngine()
+	{
+		return myGameEngine;
+	}
+}
@@ -0,0 +1,18 @@
+package connectmodel;
+
+/**
+ * @purpose GreedyStrategy only looks one move ahead: win if possible, otherwise block,
+ * otherwise play the column the position evaluation likes best.
+ * @author madisongipson
+ *
+ * @input Game board and piece type of the player moving.
+ * @output Column to place the next piece into.
+ */
+
+public class GreedyStrategy implements Strategy
+{
+	public int chooseColumn(GameBoard gameboard, PieceType type)
+	{
+		return gameboard.findBestMoveColumn(type);
+	}
+}
@@ -0,0 +1,197 @@
+package connectmodel;
+
+import java.util.Arrays;
+
+/**
+ * @purpose IterativeDeepeningStrategy searches one move deeper at a time until a
+ * wall-clock deadline, so it answers in time on any board size. The column it plays
+ * is always the best one from the last depth it finished. While it is searching,
+ * another thread can ask for the depth reached so far & the principal variation
+ * (the line of moves both players are expected to play).
+ * @author madisongipson
+ *
+ * @input Time limit per move, optional depth limit and transposition table.
+ * @output Column to place the next piece into, depth reached and principal variation.
+ */
+
+public class IterativeDeepeningStrategy implements Strategy
+{
+	public static final long DEFAULT_TIME_LIMIT_MILLIS = 50;
+
+	private long myTimeLimitMillis;
+	private int myMaxDepth;
+	private NegamaxStrategy mySearch;
+	private TranspositionTable myTable;
+	private volatile int myCompletedDepth;
+	private volatile int myBestMove;
+	private volatile int myBestScore;
+	private volatile int[] myPrincipalVariation;
+	private volatile boolean myIsSearching;
+	private volatile long myNodes;
+
+	public IterativeDeepeningStrategy(long timeLimitMillis)
+	{
+		this(timeLimitMillis, Integer.MAX_VALUE, new TranspositionTable(ComputerPlayer.DEFAULT_TABLE_MEGABYTES));
+	}
+
+	/**
+	* @param timeLimitMillis milliseconds allowed per move
+	* @param maxDepth deepest search to try
+	* @param table transposition table used to order moves & read the principal variation
+	*/
+	public IterativeDeepeningStrategy(long timeLimitMillis, int maxDepth, TranspositionTable table)
+	{
+		myTimeLimitMillis = timeLimitMillis;
+		myMaxDepth = maxDepth;
+		myTable = table;
+		mySearch = new NegamaxStrategy(1, 0, table);
+		myPrincipalVariation = new int[0];
+		myBestMove = -1;
+	}
+
+	/**
+	* Method to search deeper & deeper until the deadline, a forced win or loss is found,
+	* or the board would be full
+	* @param game board to move on & piece type of the player moving
+	* @return best column from the last depth finished, -1 if every column is full
+	* @author madisongipson */
+	public int chooseColumn(GameBoard gameboard, PieceType type)
+	{
+		long deadline = System.nanoTime() + myTimeLimitMillis*1000000L;
+		int slot = gameboard.getSlot(type);
+		int emptySpots = gameboard.getNumRows()*gameboard.getNumColumns() - gameboard.getNumMoves();
+		int maxDepth = Math.min(myMaxDepth, emptySpots);
+		myCompletedDepth = 0;
+		myBestMove = -1;
+		myBestScore = 0;
+		myPrincipalVariation = new int[0];
+		myNodes = 0;
+		myIsSearching = true;
+		myTable.newSearch();
+		try
+		{
+			for(int depth=1; depth<=maxDepth; depth++)
+			{
+				int move = mySearch.searchRoot(gameboard, slot, depth, deadline, myBestMove);
+				myNodes += mySearch.getNodes();
+				if(mySearch.isOutOfTime() && myBestMove > -1)
+				{
+					break; //unfinished depth, keep the last finished one
+				}
+				myBestMove = move;
+				myBestScore = mySearch.getBestScore();
+				myPrincipalVariation = readPrincipalVariation(gameboard, slot, move, depth);
+				myCompletedDepth = depth;
+				if(mySearch.isOutOfTime() || NegamaxStrategy.isWinScore(myBestScore))
+				{
+					break; //nothing left to learn by going deeper
+				}
+			}
+		}
+		finally
+		{
+			myIsSearching = false;
+		}
+		return myBestMove;
+	}
+
+	/**
+	* Method to follow the best moves stored in the table from the root
+	* @param game board, slot of the player moving, best root column & most moves to follow
+	* @return columns of the expected line of play
+	* @author madisongipson */
+	private int[] readPrincipalVariation(GameBoard gameboard, int slot, int firstMove, int maxLength)
+	{
+		int[] line = new int[maxLength];
+		int length = 0;
+		int made = 0;
+		int col = firstMove;
+		int mover = slot;
+		while(length < maxLength && col > -1 && !gameboard.isColumnFull(col))
+		{
+			line[length++] = col;
+			if(gameboard.isWinningMove(col, mover))
+			{
+				break;
+			}
+			gameboard.makeMove(col, mover);
+			made++;
+			mover = gameboard.getOpponentSlot(mover);
+			long entry = myTable.probe(NegamaxStrategy.getTableKey(gameboard, mover));
+			col = entry != 0? TranspositionTable.getMove(entry) : -1;
+		}
+		while(made > 0) //take back every move that was made
+		{
+			made--;
+			mover = gameboard.getOpponentSlot(mover);
+			gameboard.unmakeMove(line[made], mover);
+		}
+		return Arrays.copyOf(line, length);
+	}
+
+	/**
+	* Method to make a running search return its best move now; safe to call from another thread
+	* @author madisongipson */
+	public void stop()
+	{
+		mySearch.stop();
+	}
+
+	public void restart()
+	{
+		mySearch.restart();
+	}
+
+	public boolean isSearching()
+	{
+		return myIsSearching;
+	}
+
+	public int getCompletedDepth()
+	{
+		return myCompletedDepth;
+	}
+
+	public int getBestMove()
+	{
+		return myBestMove;
+	}
+
+	public int getBestScore()
+	{
+		return myBestScore;
+	}
+
+	/**
+	* Method to get the expected line of play from the last depth finished
+	* @return columns of the expected line of play, first move first
+	* @author madisongipson */
+	public int[] getPrincipalVariation()
+	{
+		return myPrincipalVariation.clone();
+	}
+
+	public long getTimeLimitMillis()
+	{
+		return myTimeLimitMillis;
+	}
+
+	public void setTimeLimitMillis(long timeLimitMillis)
+	{
+		myTimeLimitMillis = timeLimitMillis;
+	}
+
+	/**
+	* Method to count the nodes searched so far by the last search
+	* @return nodes searched
+	* @author madisongipson */
+	public long getNodes()
+	{
+		return myNodes;
+	}
+
+	public TranspositionTable getTranspositionTable()
+	{
+		return myTable;
+	}
+}
@@ -0,0 +1,641 @@
+package connectmodel;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @purpose MctsStrategy picks a move by Monte Carlo tree search, so it needs no evaluation
+ * of the board & works on any board size & win length. Each playout walks down the tree
+ * choosing children by UCT (the best mix of win rate & how little a child was tried),
+ * adds a leaf's children, then plays random moves to the end of the game & counts the
+ * result back up the path. Light playouts drop pieces at random; heavy playouts win
+ * when they can & block the opponent's win when they must. The column tried the most is
+ * played, so the more playouts it gets, the stronger it plays.
+ * Nodes live in a pool of arrays allocated once, not one object per node. After a move,
+ * the part of the tree under the position reached is kept for the next move. Playouts
+ * run on several threads sharing the tree; each thread counts a visit on its way down
+ * before the result is in (a virtual loss), so the threads spread out over the tree.
+ * @author madisongipson
+ *
+ * @input Playouts per move, threads, optional time limit, playout kind & node pool size.
+ * @output Column to place the next piece into.
+ */
+
+public class MctsStrategy implements Strategy
+{
+	public static final int DEFAULT_PLAYOUTS = 20000;
+	public static final int DEFAULT_MAX_NODES = 1 << 19;
+	public static final double EXPLORATION = 1.4; //about sqrt(2), the UCT constant for results between 0 & 1
+	private static final int UNEXPANDED = -1; //child states, any other value is the first child's index
+	private static final int EXPANDING = -2;
+	private static final int WON = -3; //the move into the node won the game
+	private static final int DRAWN = -4; //the move into the node filled the board
+	private static final int WIN = 2; //scores stored per visit, for the player who moved into the node
+	private static final int DRAW = 1;
+	private static final int REUSE_DEPTH = 2; //our move & the opponent's reply
+
+	private int myPlayouts;
+	private int myNumThreads;
+	private long myTimeLimitMillis;
+	private boolean myIsHeavy;
+	private int myMaxNodes;
+	private ForkJoinPool myPool;
+	private volatile boolean myIsStopped;
+
+	private NodePool myNodes; //the tree being searched
+	private NodePool mySpareNodes; //the tree kept after a move is copied in here
+	private int myRoot;
+	private int myRootMoves;
+	private int myRootSlot;
+	private long myLastPlayouts;
+	private boolean myIsTreeReused;
+	private AtomicLong myPlayoutsDone;
+
+	public MctsStrategy()
+	{
+		this(DEFAULT_PLAYOUTS, 1, 0, false, DEFAULT_MAX_NODES);
+	}
+
+	public MctsStrategy(int playouts)
+	{
+		this(playouts, 1, 0, false, DEFAULT_MAX_NODES);
+	}
+
+	/**
+	* @param playouts playouts per move
+	* @param threads number of threads to run playouts on
+	* @param timeLimitMillis milliseconds allowed per move, 0 for no limit
+	* @param heavy true for playouts that win & block, false for random ones
+	* @param maxNodes most nodes the tree may hold; once full, playouts start at its leaves
+	*/
+	public MctsStrategy(int playouts, int threads, long timeLimitMillis, boolean heavy, int maxNodes)
+	{
+		if(threads < 1)
+		{
+			throw new IllegalArgumentException("Need at least one playout thread");
+		}
+		if(playouts < 1 || maxNodes < 2)
+		{
+			throw new IllegalArgumentException("Need at least one playout & room for a root & a child");
+		}
+		myPlayouts = playouts;
+		myNumThreads = threads;
+		myTimeLimitMillis = timeLimitMillis;
+		myIsHeavy = heavy;
+		myMaxNodes = maxNodes;
+		myPool = threads > 1? new ForkJoinPool(threads) : null;
+		myPlayoutsDone = new AtomicLong();
+		myRoot = -1;
+	}
+
+	/**
+	* Method to run the playouts & choose the column tried the most. A column that wins
+	* at once is played without searching
+	* @param game board to move on & piece type of the player moving
+	* @return column to place the next piece into, -1 if every column is full
+	* @author madisongipson */
+	public int chooseColumn(GameBoard gameboard, PieceType type)
+	{
+		int slot = gameboard.getSlot(type);
+		int fallback = -1;
+		for(int col : NegamaxStrategy.getCenterFirstOrder(gameboard.getNumColumns()))
+		{
+			if(!gameboard.isColumnFull(col))
+			{
+				if(gameboard.isWinningMove(col, slot))
+				{
+					return col;
+				}
+				if(fallback < 0)
+				{
+					fallback = col;
+				}
+			}
+		}
+		if(fallback < 0)
+		{
+			return -1;
+		}
+		setRoot(gameboard, slot);
+		long deadline = myTimeLimitMillis > 0? System.nanoTime() + myTimeLimitMillis*1000000L : Long.MAX_VALUE;
+		myPlayoutsDone.set(0);
+		Playouts[] workers = new Playouts[myNumThreads];
+		for(int i=0; i<myNumThreads; i++)
+		{
+			workers[i] = new Playouts(new GameBoard(gameboard), slot, deadline, i);
+		}
+		if(myPool == null)
+		{
+			workers[0].compute();
+		}
+		else
+		{
+			myPool.invoke(new RecursiveAction()
+			{
+				private static final long serialVersionUID = 1L;
+
+				protected void compute()
+				{
+					invokeAll(workers);
+				}
+			});
+		}
+		myLastPlayouts = Math.min(myPlayoutsDone.get(), myPlayouts); //threads count one past the budget as they stop
+		int best = getMostVisitedChild(myRoot);
+		return best > -1? myNodes.myColumns[best] : fallback;
+	}
+
+	/**
+	* Method to set the root to the node of the board's position, keeping the tree under
+	* it when the position was reached from the last root; otherwise the tree starts over
+	* @param game board & slot of the player moving
+	* @author madisongipson */
+	private void setRoot(GameBoard gameboard, int slot)
+	{
+		if(myNodes == null || myNodes.myColumns.length != myMaxNodes)
+		{
+			myNodes = new NodePool(myMaxNodes);
+			mySpareNodes = new NodePool(myMaxNodes);
+			myRoot = -1;
+		}
+		int depth = gameboard.getNumMoves() - myRootMoves;
+		int found = -1;
+		if(myRoot > -1 && slot == myRootSlot && depth >= 0 && depth <= REUSE_DEPTH)
+		{
+			found = findNode(myRoot, depth, gameboard.getHash());
+		}
+		myIsTreeReused = found > -1;
+		if(found > -1)
+		{
+			myRoot = copySubtree(found);
+		}
+		else
+		{
+			myNodes.myNumNodes.set(1);
+			myNodes.clear(0, -1, gameboard.getHash());
+			myRoot = 0;
+		}
+		myRootMoves = gameboard.getNumMoves();
+		myRootSlot = slot;
+	}
+
+	/**
+	* Method to look for a position's node a number of moves below a node
+	* @param node to start from, moves below it & hash of the position
+	* @return index of the node, -1 if the tree does not reach it
+	* @author madisongipson */
+	private int findNode(int node, int depth, long hash)
+	{
+		if(depth == 0)
+		{
+			return myNodes.myHashes[node] == hash? node : -1;
+		}
+		int first = myNodes.myChildren.get(node);
+		for(int child=first; first > -1 && child<first+myNodes.myNumChildren[node]; child++)
+		{
+			int found = findNode(child, depth-1, hash);
+			if(found > -1)
+			{
+				return found;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	* Method to copy the tree under a node into the spare pool, breadth first so every
+	* node's children stay side by side, then make the spare pool the one searched
+	* @param node to become the root
+	* @return index of the root in the new pool, always 0
+	* @author madisongipson */
+	private int copySubtree(int node)
+	{
+		NodePool from = myNodes;
+		NodePool to = mySpareNodes;
+		to.copy(0, from, node);
+		int copied = 1;
+		for(int next=0; next<copied; next++)
+		{
+			int old = next == 0? node : to.myChildren.get(next); //a copied node holds its old index until its turn
+			int first = from.myChildren.get(old);
+			if(first < 0)
+			{
+				to.myChildren.set(next, first == EXPANDING? UNEXPANDED : first);
+				to.myNumChildren[next] = 0;
+				continue;
+			}
+			int numChildren = from.myNumChildren[old];
+			for(int i=0; i<numChildren; i++)
+			{
+				to.copy(copied+i, from, first+i);
+				to.myChildren.set(copied+i, first+i);
+			}
+			to.myChildren.set(next, copied);
+			to.myNumChildren[next] = numChildren;
+			copied += numChildren;
+		}
+		to.myNumNodes.set(copied);
+		mySpareNodes = from;
+		myNodes = to;
+		return 0;
+	}
+
+	/**
+	* Method to find the child visited the most
+	* @param node whose children to compare
+	* @return index of the child, -1 if the node has none
+	* @author madisongipson */
+	private int getMostVisitedChild(int node)
+	{
+		int first = myNodes.myChildren.get(node);
+		int best = -1;
+		for(int child=first; first > -1 && child<first+myNodes.myNumChildren[node]; child++)
+		{
+			if(myNodes.myChildren.get(child) == WON)
+			{
+				return child;
+			}
+			if(best < 0 || myNodes.myVisits.get(child) > myNodes.myVisits.get(best))
+			{
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	* Method to make running playouts finish early; safe to call from another thread
+	* @author madisongipson */
+	public void stop()
+	{
+		myIsStopped = true;
+	}
+
+	public void restart()
+	{
+		myIsStopped = false;
+	}
+
+	/**
+	* Method to stop the threads once they are no longer needed
+	* @author madisongipson */
+	public void shutdown()
+	{
+		if(myPool != null)
+		{
+			myPool.shutdown();
+		}
+	}
+
+	public int getPlayouts()
+	{
+		return myPlayouts;
+	}
+
+	public void setPlayouts(int playouts)
+	{
+		myPlayouts = playouts;
+	}
+
+	public int getNumThreads()
+	{
+		return myNumThreads;
+	}
+
+	public boolean isHeavy()
+	{
+		return myIsHeavy;
+	}
+
+	/**
+	* Method to count the playouts the last move ran, which can be fewer than the budget
+	* when time ran out or the search was stopped
+	* @return playouts run
+	* @author madisongipson */
+	public long getLastPlayouts()
+	{
+		return myLastPlayouts;
+	}
+
+	/**
+	* Method to check if the last move started from the tree kept from the move before
+	* @return truth value of the tree being reused
+	* @author madisongipson */
+	public boolean isTreeReused()
+	{
+		return myIsTreeReused;
+	}
+
+	public int getNumNodes()
+	{
+		return myNodes == null? 0 : myNodes.myNumNodes.get();
+	}
+
+	/**
+	 * The nodes of a tree, each one an index into arrays allocated once. Children
+	 * of a node sit side by side, so a node only keeps its first child & how many.
+	 * Visits & scores are updated by every thread, so they are atomic; a node's
+	 * children are added by one thread, which marks it EXPANDING first.
+	 */
+	private static class NodePool
+	{
+		private AtomicIntegerArray myChildren; //first child, or UNEXPANDED, EXPANDING, WON or DRAWN
+		private int[] myNumChildren;
+		private int[] myColumns; //column of the move into the node
+		private long[] myHashes; //hash of the position after the move
+		private AtomicIntegerArray myVisits;
+		private AtomicIntegerArray myScores; //WIN or DRAW per visit, for the player who moved into the node
+		private AtomicInteger myNumNodes;
+
+		private NodePool(int maxNodes)
+		{
+			myChildren = new AtomicIntegerArray(maxNodes);
+			myNumChildren = new int[maxNodes];
+			myColumns = new int[maxNodes];
+			myHashes = new long[maxNodes];
+			myVisits = new AtomicIntegerArray(maxNodes);
+			myScores = new AtomicIntegerArray(maxNodes);
+			myNumNodes = new AtomicInteger();
+		}
+
+		/**
+		* Method to set a node up as a new, unvisited leaf
+		* @param node, column of the move into it & hash of the position after it
+		* @author madisongipson */
+		private void clear(int node, int col, long hash)
+		{
+			myChildren.set(node, UNEXPANDED);
+			myNumChildren[node] = 0;
+			myColumns[node] = col;
+			myHashes[node] = hash;
+			myVisits.set(node, 0);
+			myScores.set(node, 0);
+		}
+
+		/**
+		* Method to copy a node from another pool, children aside
+		* @param node to copy into, pool to copy from & node to copy
+		* @author madisongipson */
+		private void copy(int node, NodePool from, int fromNode)
+		{
+			myColumns[node] = from.myColumns[fromNode];
+			myHashes[node] = from.myHashes[fromNode];
+			myVisits.set(node, from.myVisits.get(fromNode));
+			myScores.set(node, from.myScores.get(fromNode));
+		}
+	}
+
+	/**
+	 * Runs playouts on one thread, with its own copy of the board, until the budget
+	 * shared by every thread is used up, time runs out or the search is stopped.
+	 */
+	private class Playouts extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private GameBoard myBoard;
+		private int mySlot;
+		private long myDeadline;
+		private SplittableRandom myRandom;
+		private int[] myPath; //nodes from the root down
+		private int[] myMoves; //columns played from the root position, to take back
+		private int[] myColumns; //scratch list of the columns that aren't full
+
+		private Playouts(GameBoard gameboard, int slot, long deadline, int id)
+		{
+			myBoard = gameboard;
+			mySlot = slot;
+			myDeadline = deadline;
+			myRandom = new SplittableRandom(System.nanoTime() + id*0x9E3779B97F4A7C15L);
+			int spots = gameboard.getNumRows()*gameboard.getNumColumns();
+			myPath = new int[spots+2];
+			myMoves = new int[spots+1];
+			myColumns = new int[gameboard.getNumColumns()];
+		}
+
+		protected void compute()
+		{
+			int played = 0;
+			while(!myIsStopped && myPlayoutsDone.getAndIncrement() < myPlayouts)
+			{
+				playout();
+				if((++played & 0xF) == 0 && System.nanoTime() > myDeadline)
+				{
+					break;
+				}
+			}
+		}
+
+		/**
+		* Method to walk down the tree, add a leaf's children, play the game out at random
+		* & count the result on every node of the path
+		* @author madisongipson */
+		private void playout()
+		{
+			NodePool nodes = myNodes;
+			int node = myRoot;
+			int mover = mySlot; //player to move in the node's position
+			int length = 0;
+			int played = 0;
+			myPath[length++] = node;
+			nodes.myVisits.incrementAndGet(node);
+			int winner = -1;
+			boolean isOver = false;
+			while(true)
+			{
+				int state = nodes.myChildren.get(node);
+				if(state == WON || state == DRAWN)
+				{
+					winner = state == WON? myBoard.getOpponentSlot(mover) : -1;
+					isOver = true;
+					break;
+				}
+				if(state == UNEXPANDED && (node == myRoot || nodes.myVisits.get(node) > 1))
+				{
+					state = expand(nodes, node, mover);
+				}
+				if(state < 0)
+				{
+					break; //a leaf, or another thread is adding its children
+				}
+				node = selectChild(nodes, node, state);
+				nodes.myVisits.incrementAndGet(node); //virtual loss until the result is in
+				myPath[length++] = node;
+				myBoard.makeMove(nodes.myColumns[node], mover);
+				myMoves[played++] = nodes.myColumns[node];
+				mover = myBoard.getOpponentSlot(mover);
+			}
+			if(!isOver)
+			{
+				while(!myBoard.isBoardFull())
+				{
+					int col = chooseRandomColumn(mover);
+					boolean wins = myBoard.isWinningMove(col, mover);
+					myBoard.makeMove(col, mover);
+					myMoves[played++] = col;
+					if(wins)
+					{
+						winner = mover;
+						break;
+					}
+					mover = myBoard.getOpponentSlot(mover);
+				}
+			}
+			int opponent = myBoard.getOpponentSlot(mySlot);
+			for(int i=played-1; i>-1; i--) //take back every move, last first
+			{
+				myBoard.unmakeMove(myMoves[i], i % 2 == 0? mySlot : opponent);
+			}
+			backPropagate(nodes, length, winner);
+		}
+
+		/**
+		* Method to add a score to every node of the path; visits were already counted
+		* on the way down
+		* @param nodes, length of the path & slot of the winner, -1 for a draw
+		* @author madisongipson */
+		private void backPropagate(NodePool nodes, int length, int winner)
+		{
+			int mover = myBoard.getOpponentSlot(mySlot); //player who moved into the root
+			for(int i=0; i<length; i++)
+			{
+				if(winner < 0)
+				{
+					nodes.myScores.addAndGet(myPath[i], DRAW);
+				}
+				else if(winner == mover)
+				{
+					nodes.myScores.addAndGet(myPath[i], WIN);
+				}
+				mover = myBoard.getOpponentSlot(mover);
+			}
+		}
+
+		/**
+		* Method to add a node's children, one per column that isn't full, marking the
+		* ones that win or fill the board. Only the thread that marks the node EXPANDING
+		* adds them, and nothing is added once the pool is full
+		* @param nodes, node & slot of the player to move in its position
+		* @return the node's new child state
+		* @author madisongipson */
+		private int expand(NodePool nodes, int node, int mover)
+		{
+			if(!nodes.myChildren.compareAndSet(node, UNEXPANDED, EXPANDING))
+			{
+				return nodes.myChildren.get(node);
+			}
+			int numChildren = 0;
+			for(int col=0; col<myBoard.getNumColumns(); col++)
+			{
+				if(!myBoard.isColumnFull(col))
+				{
+					numChildren++;
+				}
+			}
+			int first;
+			do
+			{
+				first = nodes.myNumNodes.get();
+				if(first+numChildren > nodes.myColumns.length)
+				{
+					nodes.myChildren.set(node, UNEXPANDED); //the pool is full, stay a leaf
+					return UNEXPANDED;
+				}
+			}
+			while(!nodes.myNumNodes.compareAndSet(first, first+numChildren));
+			int child = first;
+			for(int col=0; col<myBoard.getNumColumns(); col++)
+			{
+				if(!myBoard.isColumnFull(col))
+				{
+					boolean wins = myBoard.isWinningMove(col, mover);
+					myBoard.makeMove(col, mover);
+					nodes.clear(child, col, myBoard.getHash());
+					if(wins)
+					{
+						nodes.myChildren.set(child, WON);
+					}
+					else if(myBoard.isBoardFull())
+					{
+						nodes.myChildren.set(child, DRAWN);
+					}
+					myBoard.unmakeMove(col, mover);
+					child++;
+				}
+			}
+			nodes.myNumChildren[node] = numChildren;
+			nodes.myChildren.set(node, first); //publishes the children to the other threads
+			return first;
+		}
+
+		/**
+		* Method to choose the child with the best UCT value, trying unvisited children first
+		* @param nodes, node & its first child
+		* @return index of the child
+		* @author madisongipson */
+		private int selectChild(NodePool nodes, int node, int first)
+		{
+			double logVisits = Math.log(Math.max(1, nodes.myVisits.get(node)));
+			int best = first;
+			double bestValue = -1;
+			for(int child=first; child<first+nodes.myNumChildren[node]; child++)
+			{
+				int visits = nodes.myVisits.get(child);
+				if(visits == 0)
+				{
+					return child;
+				}
+				double value = nodes.myScores.get(child)/(2.0*visits) + EXPLORATION*Math.sqrt(logVisits/visits);
+				if(value > bestValue)
+				{
+					bestValue = value;
+					best = child;
+				}
+			}
+			return best;
+		}
+
+		/**
+		* Method to choose a playout move: a random column that isn't full, or for heavy
+		* playouts a winning column, then a column blocking the opponent's win
+		* @param slot of the player moving
+		* @return column to play
+		* @author madisongipson */
+		private int chooseRandomColumn(int slot)
+		{
+			int numColumns = 0;
+			for(int col=0; col<myBoard.getNumColumns(); col++)
+			{
+				if(!myBoard.isColumnFull(col))
+				{
+					myColumns[numColumns++] = col;
+				}
+			}
+			if(myIsHeavy)
+			{
+				int opponent = myBoard.getOpponentSlot(slot);
+				int block = -1;
+				for(int i=0; i<numColumns; i++)
+				{
+					if(myBoard.isWinningMove(myColumns[i], slot))
+					{
+						return myColumns[i];
+					}
+					if(block < 0 && myBoard.isWinningMove(myColumns[i], opponent))
+					{
+						block = myColumns[i];
+					}
+				}
+				if(block > -1)
+				{
+					return block;
+				}
+			}
+			return myColumns[myRandom.nextInt(numColumns)];
+		}
+	}
+}
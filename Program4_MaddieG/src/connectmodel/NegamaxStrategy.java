@@ -0,0 +1,400 @@
+package connectmodel;
+
+/**
+ * @purpose NegamaxStrategy searches ahead a set number of moves with negamax and
+ * alpha-beta pruning. Moves are made & unmade on the game board itself, center
+ * columns are tried first, and the search can be given a time limit. An optional
+ * transposition table keyed by the board's Zobrist hash skips positions already scored.
+ * @author madisongipson
+ *
+ * @input Search depth, optional time limit and optional transposition table.
+ * @output Column to place the next piece into.
+ */
+
+public class NegamaxStrategy implements Strategy
+{
+	public static final int DEFAULT_DEPTH = 8;
+	public static final int WIN_SCORE = 1000000;
+	private static final int TIME_CHECK_NODES = 4096;
+	private static final int MAX_PLIES = 1000;
+	private static final long SIDE_KEY = 0x9E3779B97F4A7C15L; //hashed in when the second slot is moving
+
+	private int myMaxDepth;
+	private long myTimeLimitMillis;
+	private long myDeadline;
+	private boolean myIsOutOfTime;
+	private volatile boolean myIsStopped;
+	private long myNodes;
+	private int myBestScore;
+	private GameBoard myGameBoard;
+	private int[] myMoveOrder;
+	private TranspositionTable myTable;
+
+	public NegamaxStrategy()
+	{
+		this(DEFAULT_DEPTH);
+	}
+
+	public NegamaxStrategy(int depth)
+	{
+		this(depth, 0);
+	}
+
+	/**
+	* @param depth number of moves to search ahead
+	* @param timeLimitMillis milliseconds allowed per move, 0 for no limit
+	*/
+	public NegamaxStrategy(int depth, long timeLimitMillis)
+	{
+		this(depth, timeLimitMillis, null);
+	}
+
+	/**
+	* @param depth number of moves to search ahead
+	* @param timeLimitMillis milliseconds allowed per move, 0 for no limit
+	* @param table transposition table to share scores through, null for none
+	*/
+	public NegamaxStrategy(int depth, long timeLimitMillis, TranspositionTable table)
+	{
+		myMaxDepth = depth;
+		myTimeLimitMillis = timeLimitMillis;
+		myTable = table;
+	}
+
+	/**
+	* Method to search for the column with the best score. If time runs out, the best
+	* column among the ones fully searched is returned
+	* @param game board to move on & piece type of the player moving
+	* @return column to place the next piece into, -1 if every column is full
+	* @author madisongipson */
+	public int chooseColumn(GameBoard gameboard, PieceType type)
+	{
+		if(myTable != null)
+		{
+			myTable.newSearch();
+		}
+		long deadline = myTimeLimitMillis > 0? System.nanoTime() + myTimeLimitMillis*1000000L : Long.MAX_VALUE;
+		return searchRoot(gameboard, gameboard.getSlot(type), myMaxDepth, deadline, -1);
+	}
+
+	/**
+	* Method to search every column to a given depth. The caller starts a new search on the table
+	* @param game board to move on, slot of the player moving, depth, System.nanoTime() deadline
+	* & column to try first (-1 for none)
+	* @return best column fully searched, -1 if every column is full
+	* @author madisongipson */
+	int searchRoot(GameBoard gameboard, int slot, int depth, long deadline, int firstColumn)
+	{
+		setGameBoard(gameboard);
+		startClock(deadline);
+		int bestMove = -1;
+		int alpha = -WIN_SCORE-1;
+		for(int i=-1; i<myMoveOrder.length; i++)
+		{
+			int col = i < 0? firstColumn:myMoveOrder[i];
+			if(col < 0 || (i > -1 && col == firstColumn) || gameboard.isColumnFull(col))
+			{
+				continue;
+			}
+			if(bestMove < 0)
+			{
+				bestMove = col; //something to play even if time runs out
+			}
+			int score = searchColumn(col, slot, depth, alpha, WIN_SCORE+1);
+			if(myIsOutOfTime)
+			{
+				break;
+			}
+			if(score > alpha)
+			{
+				alpha = score;
+				bestMove = col;
+			}
+		}
+		myBestScore = alpha;
+		return bestMove;
+	}
+
+	/**
+	* Method to score a single column for the player moving, used when the columns of
+	* one move are split across threads. The caller starts a new search on the table
+	* @param game board to move on, column that is not full, slot of the player moving,
+	* score bounds & System.nanoTime() deadline
+	* @return score of the column, only valid if the search did not run out of time
+	* @author madisongipson */
+	int scoreColumn(GameBoard gameboard, int col, int slot, int alpha, int beta, long deadline)
+	{
+		setGameBoard(gameboard);
+		startClock(deadline);
+		return searchColumn(col, slot, myMaxDepth, alpha, beta);
+	}
+
+	/**
+	* Method to reset the node count & set when the search must stop
+	* @param System.nanoTime() deadline
+	* @author madisongipson */
+	private void startClock(long deadline)
+	{
+		myNodes = 0;
+		myIsOutOfTime = myIsStopped;
+		myDeadline = deadline;
+	}
+
+	/**
+	* Method to make a running search give up as if it ran out of time; safe to call
+	* from another thread. Searches started afterwards stop right away until restart()
+	* @author madisongipson */
+	public void stop()
+	{
+		myIsStopped = true;
+	}
+
+	/**
+	* Method to let searches run again after stop()
+	* @author madisongipson */
+	public void restart()
+	{
+		myIsStopped = false;
+	}
+
+	/**
+	* Method to score playing a column at the root
+	* @param column that is not full, slot of the player moving, depth & score bounds
+	* @return score of the column for the player moving
+	* @author madisongipson */
+	private int searchColumn(int col, int slot, int depth, int alpha, int beta)
+	{
+		GameBoard board = myGameBoard;
+		if(board.isWinningMove(col, slot))
+		{
+			return WIN_SCORE-1;
+		}
+		board.makeMove(col, slot);
+		int score = -negamax(depth-1, 1, -beta, -alpha, board.getOpponentSlot(slot));
+		board.unmakeMove(col, slot);
+		return score;
+	}
+
+	/**
+	* Method to score the board from the point of view of the player moving, looking
+	* depth moves ahead. Wins found sooner score higher than wins found later
+	* @param depth left, moves made since the root, score bounds & slot of player moving
+	* @return score of the board for the player moving
+	* @author madisongipson */
+	private int negamax(int depth, int ply, int alpha, int beta, int slot)
+	{
+		GameBoard board = myGameBoard;
+		if((++myNodes & (TIME_CHECK_NODES-1)) == 0 && (myIsStopped || System.nanoTime() > myDeadline))
+		{
+			myIsOutOfTime = true;
+		}
+		if(myIsOutOfTime)
+		{
+			return 0;
+		}
+		if(board.isBoardFull())
+		{
+			return 0; //draw
+		}
+		int[] order = myMoveOrder;
+		for(int i=0; i<order.length; i++)
+		{
+			if(!board.isColumnFull(order[i]) && board.isWinningMove(order[i], slot))
+			{
+				return WIN_SCORE-ply-1;
+			}
+		}
+		if(depth <= 0)
+		{
+			return board.evaluate(slot);
+		}
+		long key = getTableKey(board, slot);
+		int tableMove = -1;
+		int alphaBefore = alpha;
+		if(myTable != null)
+		{
+			long entry = myTable.probe(key);
+			if(entry != 0)
+			{
+				tableMove = TranspositionTable.getMove(entry);
+				if(TranspositionTable.getDepth(entry) >= depth)
+				{
+					int score = fromTableScore(TranspositionTable.getScore(entry), ply);
+					int bound = TranspositionTable.getBound(entry);
+					if(bound == TranspositionTable.EXACT || 
+							(bound == TranspositionTable.LOWER_BOUND && score >= beta) ||
+							(bound == TranspositionTable.UPPER_BOUND && score <= alpha))
+					{
+						return score;
+					}
+				}
+			}
+		}
+		int opponent = board.getOpponentSlot(slot);
+		int best = -WIN_SCORE;
+		int bestMove = -1;
+		for(int i=-1; i<order.length; i++)
+		{
+			int col = i < 0? tableMove:order[i]; //table's best move first
+			if(col < 0 || (i > -1 && col == tableMove) || board.isColumnFull(col))
+			{
+				continue;
+			}
+			board.makeMove(col, slot);
+			int score = -negamax(depth-1, ply+1, -beta, -alpha, opponent);
+			board.unmakeMove(col, slot);
+			if(score > best)
+			{
+				best = score;
+				bestMove = col;
+				if(score > alpha)
+				{
+					alpha = score;
+					if(alpha >= beta)
+					{
+						break; //opponent will never allow this line
+					}
+				}
+			}
+		}
+		if(myTable != null && !myIsOutOfTime)
+		{
+			int bound = best <= alphaBefore? TranspositionTable.UPPER_BOUND : 
+				best >= beta? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+			myTable.store(key, depth, toTableScore(best, ply), bound, bestMove);
+		}
+		return best;
+	}
+
+	/**
+	* Method to find the transposition table key of the board with a given player to move
+	* @param game board & slot of the player moving
+	* @return table key
+	* @author madisongipson */
+	public static long getTableKey(GameBoard board, int slot)
+	{
+		return board.getHash() ^ (slot == 0? 0:SIDE_KEY);
+	}
+
+	/**
+	* Method to check if a score means a forced win or loss was found
+	* @param score
+	* @return truth value of the score being a win or loss
+	* @author madisongipson */
+	public static boolean isWinScore(int score)
+	{
+		return score > WIN_SCORE-MAX_PLIES || score < -WIN_SCORE+MAX_PLIES;
+	}
+
+	/**
+	* Method to make a win score count from this position instead of from the root, so
+	* it stays right when the position is reached at a different ply
+	* @param score & moves made since the root
+	* @return score to store in the table
+	* @author madisongipson */
+	private static int toTableScore(int score, int ply)
+	{
+		if(score > WIN_SCORE-MAX_PLIES)
+		{
+			return score+ply;
+		}
+		if(score < -WIN_SCORE+MAX_PLIES)
+		{
+			return score-ply;
+		}
+		return score;
+	}
+
+	/**
+	* Method to turn a stored score back into a score counted from the root
+	* @param stored score & moves made since the root
+	* @return score counted from the root
+	* @author madisongipson */
+	private static int fromTableScore(int score, int ply)
+	{
+		if(score > WIN_SCORE-MAX_PLIES)
+		{
+			return score-ply;
+		}
+		if(score < -WIN_SCORE+MAX_PLIES)
+		{
+			return score+ply;
+		}
+		return score;
+	}
+
+	/**
+	* Method to point the search at a game board
+	* @param game board to search
+	* @author madisongipson */
+	private void setGameBoard(GameBoard gameboard)
+	{
+		if(myGameBoard == gameboard)
+		{
+			return;
+		}
+		myGameBoard = gameboard;
+		myMoveOrder = getCenterFirstOrder(gameboard.getNumColumns());
+	}
+
+	/**
+	* Method to list the columns from the center out
+	* @param number of columns
+	* @return columns, center first
+	* @author madisongipson */
+	static int[] getCenterFirstOrder(int numColumns)
+	{
+		int[] order = new int[numColumns];
+		for(int i=0; i<numColumns; i++)
+		{
+			int offset = (i+1)/2;
+			order[i] = (numColumns-1)/2 + (i%2 == 1? offset:-offset); //center, then alternate outwards
+		}
+		return order;
+	}
+
+	public int getMaxDepth()
+	{
+		return myMaxDepth;
+	}
+
+	public void setMaxDepth(int depth)
+	{
+		myMaxDepth = depth;
+	}
+
+	public long getTimeLimitMillis()
+	{
+		return myTimeLimitMillis;
+	}
+
+	public void setTimeLimitMillis(long timeLimitMillis)
+	{
+		myTimeLimitMillis = timeLimitMillis;
+	}
+
+	public TranspositionTable getTranspositionTable()
+	{
+		return myTable;
+	}
+
+	public void setTranspositionTable(TranspositionTable table)
+	{
+		myTable = table;
+	}
+
+	public boolean isOutOfTime()
+	{
+		return myIsOutOfTime;
+	}
+
+	public long getNodes()
+	{
+		return myNodes;
+	}
+
+	public int getBestScore()
+	{
+		return myBestScore;
+	}
+}
@@ -0,0 +1,86 @@
+package connectmodel;
+
+import java.util.SplittableRandom;
+
+/**
+ * @purpose NoisyStrategy wraps another Strategy & now and then plays a random column
+ * instead of the one it chose, so easier levels make mistakes a person can use.
+ * A random move costs nothing, so the noise never adds to the CPU a move takes.
+ * @author madisongipson
+ *
+ * @input Strategy to wrap and the chance of a random move.
+ * @output Column to place the next piece into.
+ */
+
+public class NoisyStrategy implements Strategy
+{
+	private Strategy myStrategy;
+	private double myNoise;
+	private SplittableRandom myRandom;
+
+	/**
+	* @param strategy strategy that chooses the column when there is no noise
+	* @param noise chance of a random column, from 0 to 1
+	*/
+	public NoisyStrategy(Strategy strategy, double noise)
+	{
+		if(noise < 0 || noise > 1)
+		{
+			throw new IllegalArgumentException("Noise of "+noise+" is not a chance between 0 & 1");
+		}
+		myStrategy = strategy;
+		myNoise = noise;
+		myRandom = new SplittableRandom();
+	}
+
+	/**
+	* Method to play a random column that isn't full by chance, otherwise the
+	* wrapped strategy's column
+	* @param game board to move on & piece type of the player moving
+	* @return column to place the next piece into, -1 if every column is full
+	* @author madisongipson */
+	public int chooseColumn(GameBoard gameboard, PieceType type)
+	{
+		if(myNoise > 0 && myRandom.nextDouble() < myNoise)
+		{
+			int open = 0;
+			for(int col=0; col<gameboard.getNumColumns(); col++)
+			{
+				if(!gameboard.isColumnFull(col))
+				{
+					open++;
+				}
+			}
+			int pick = open > 0? myRandom.nextInt(open) : -1;
+			for(int col=0; col<gameboard.getNumColumns(); col++)
+			{
+				if(!gameboard.isColumnFull(col) && pick-- == 0)
+				{
+					return col;
+				}
+			}
+			return -1;
+		}
+		return myStrategy.chooseColumn(gameboard, type);
+	}
+
+	public void stop()
+	{
+		myStrategy.stop();
+	}
+
+	public void restart()
+	{
+		myStrategy.restart();
+	}
+
+	public Strategy getStrategy()
+	{
+		return myStrategy;
+	}
+
+	public double getNoise()
+	{
+		return myNoise;
+	}
+}
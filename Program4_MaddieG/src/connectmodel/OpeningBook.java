@@ -0,0 +1,131 @@
+package connectmodel;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @purpose OpeningBook looks up precomputed best moves for the first moves of a game.
+ * The book file is memory-mapped read only, so opening it is instant and every JVM
+ * reading the same file shares one copy through the OS page cache.
+ * The file is a header followed by sorted records. Each record is one long: the
+ * position's table key with its low 8 bits replaced by the best column.
+ * @author madisongipson
+ *
+ * @input Book file written by connectmodeltools.OpeningBookGenerator.
+ * @output Best column for a position, or -1 if the position is not in the book.
+ */
+
+public class OpeningBook
+{
+	public static final String DEFAULT_FILE_NAME = "connect4.book";
+	public static final int MAGIC = 0x43344B42; //"C4KB"
+	public static final int VERSION = 1;
+	public static final int HEADER_BYTES = 32;
+	public static final long KEY_MASK = ~0xFFL;
+
+	private MappedByteBuffer myBuffer;
+	private int myNumRows;
+	private int myNumColumns;
+	private int myWinLength;
+	private int myPlies;
+	private int myNumRecords;
+
+	/**
+	* Opens & maps a book file
+	* @param fileName path of the book file
+	* @throws IOException if the file cannot be read or is not a book
+	*/
+	public OpeningBook(String fileName) throws IOException
+	{
+		try(RandomAccessFile file = new RandomAccessFile(fileName, "r"); FileChannel channel = file.getChannel())
+		{
+			myBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); //stays mapped after close
+		}
+		if(myBuffer.capacity() < HEADER_BYTES || myBuffer.getInt(0) != MAGIC || myBuffer.getInt(4) != VERSION)
+		{
+			throw new IOException(fileName+" is not an opening book");
+		}
+		myNumRows = myBuffer.getInt(8);
+		myNumColumns = myBuffer.getInt(12);
+		myWinLength = myBuffer.getInt(16);
+		myPlies = myBuffer.getInt(20);
+		myNumRecords = myBuffer.getInt(24);
+		if(HEADER_BYTES + (long)myNumRecords*Long.BYTES > myBuffer.capacity())
+		{
+			throw new IOException(fileName+" is cut short");
+		}
+	}
+
+	/**
+	* Method to look up the best column for the player moving
+	* @param game board & piece type of the player moving
+	* @return best column, -1 if the position is not in the book
+	* @author madisongipson */
+	public int lookup(GameBoard gameboard, PieceType type)
+	{
+		if(gameboard.getNumMoves() > myPlies || gameboard.getNumRows() != myNumRows ||
+				gameboard.getNumColumns() != myNumColumns || gameboard.getWinLength() != myWinLength)
+		{
+			return -1;
+		}
+		return lookup(NegamaxStrategy.getTableKey(gameboard, gameboard.getSlot(type)));
+	}
+
+	/**
+	* Method to binary search the records for a table key
+	* @param table key of the position
+	* @return best column, -1 if the key is not in the book
+	* @author madisongipson */
+	public int lookup(long key)
+	{
+		long target = key & KEY_MASK;
+		int low = 0;
+		int high = myNumRecords-1;
+		while(low <= high)
+		{
+			int middle = (low+high) >>> 1;
+			long record = myBuffer.getLong(HEADER_BYTES + middle*Long.BYTES);
+			long recordKey = record & KEY_MASK;
+			if(recordKey < target)
+			{
+				low = middle+1;
+			}
+			else if(recordKey > target)
+			{
+				high = middle-1;
+			}
+			else
+			{
+				return (int)(record & 0xFF);
+			}
+		}
+		return -1;
+	}
+
+	public int getNumRows()
+	{
+		return myNumRows;
+	}
+
+	public int getNumColumns()
+	{
+		return myNumColumns;
+	}
+
+	public int getWinLength()
+	{
+		return myWinLength;
+	}
+
+	public int getPlies()
+	{
+		return myPlies;
+	}
+
+	public int getNumRecords()
+	{
+		return myNumRecords;
+	}
+}
@@ -0,0 +1,232 @@
+package connectmodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @purpose ParallelNegamaxStrategy splits the columns of the next move across the
+ * threads of a ForkJoinPool. The center column is searched first to get a score to
+ * beat, then the other columns are searched at once, each on its own copy of the
+ * board with its own NegamaxStrategy. All threads share one transposition table.
+ * stop() stops every column's search, so a move can be cancelled like the others.
+ * @author madisongipson
+ *
+ * @input Thread count, search depth, optional time limit and transposition table.
+ * @output Column to place the next piece into.
+ */
+
+public class ParallelNegamaxStrategy implements Strategy
+{
+	private int myNumThreads;
+	private int myMaxDepth;
+	private long myTimeLimitMillis;
+	private TranspositionTable myTable;
+	private ForkJoinPool myPool;
+	private long myNodes;
+	private int myBestScore;
+	private volatile boolean myIsStopped;
+	private volatile List<ColumnSearch> mySearches; //of the running chooseColumn(), for stop()
+
+	public ParallelNegamaxStrategy(int threads, int depth)
+	{
+		this(threads, depth, 0, null);
+	}
+
+	/**
+	* @param threads number of threads to search with
+	* @param depth number of moves to search ahead
+	* @param timeLimitMillis milliseconds allowed per move, 0 for no limit
+	* @param table transposition table shared by every thread, null for none
+	*/
+	public ParallelNegamaxStrategy(int threads, int depth, long timeLimitMillis, TranspositionTable table)
+	{
+		if(threads < 1)
+		{
+			throw new IllegalArgumentException("Need at least one search thread");
+		}
+		myNumThreads = threads;
+		myMaxDepth = depth;
+		myTimeLimitMillis = timeLimitMillis;
+		myTable = table;
+		myPool = new ForkJoinPool(threads);
+	}
+
+	/**
+	* Method to search for the column with the best score using every thread. If time
+	* runs out, the best column among the ones fully searched is returned
+	* @param game board to move on & piece type of the player moving
+	* @return column to place the next piece into, -1 if every column is full
+	* @author madisongipson */
+	public int chooseColumn(GameBoard gameboard, PieceType type)
+	{
+		long deadline = myTimeLimitMillis > 0? System.nanoTime() + myTimeLimitMillis*1000000L : Long.MAX_VALUE;
+		if(myTable != null)
+		{
+			myTable.newSearch();
+		}
+		int slot = gameboard.getSlot(type);
+		int[] order = NegamaxStrategy.getCenterFirstOrder(gameboard.getNumColumns());
+		List<ColumnSearch> searches = new ArrayList<ColumnSearch>();
+		AtomicInteger alpha = new AtomicInteger(-NegamaxStrategy.WIN_SCORE-1);
+		for(int col : order)
+		{
+			if(!gameboard.isColumnFull(col))
+			{
+				searches.add(new ColumnSearch(new GameBoard(gameboard), col, slot, alpha, deadline));
+			}
+		}
+		if(searches.isEmpty())
+		{
+			return -1;
+		}
+		mySearches = searches;
+		myPool.invoke(searches.get(0)); //first column sets the score the rest have to beat
+		alpha.set(searches.get(0).myScore);
+		if(searches.size() > 1 && !myIsStopped)
+		{
+			myPool.invoke(new RecursiveTask<Void>()
+			{
+				private static final long serialVersionUID = 1L;
+
+				protected Void compute()
+				{
+					invokeAll(searches.subList(1, searches.size()));
+					return null;
+				}
+			});
+		}
+		int bestMove = searches.get(0).myColumn;
+		int bestScore = -NegamaxStrategy.WIN_SCORE-1;
+		myNodes = 0;
+		for(ColumnSearch search : searches)
+		{
+			myNodes += search.myNodes;
+			if(search.myIsComplete && search.myScore > bestScore)
+			{
+				bestScore = search.myScore;
+				bestMove = search.myColumn;
+			}
+		}
+		myBestScore = bestScore;
+		mySearches = null;
+		return bestMove;
+	}
+
+	/**
+	* Method to make a running search give up as if it ran out of time; safe to call
+	* from another thread. Every column being searched stops & the ones not started are
+	* skipped, as are searches started afterwards until restart()
+	* @author madisongipson */
+	public void stop()
+	{
+		myIsStopped = true;
+		List<ColumnSearch> searches = mySearches;
+		if(searches != null)
+		{
+			for(ColumnSearch search : searches)
+			{
+				NegamaxStrategy running = search.mySearch;
+				if(running != null)
+				{
+					running.stop();
+				}
+			}
+		}
+	}
+
+	public void restart()
+	{
+		myIsStopped = false;
+	}
+
+	/**
+	* Method to stop the threads once they are no longer needed
+	* @author madisongipson */
+	public void shutdown()
+	{
+		myPool.shutdown();
+	}
+
+	public int getNumThreads()
+	{
+		return myNumThreads;
+	}
+
+	public int getMaxDepth()
+	{
+		return myMaxDepth;
+	}
+
+	public void setMaxDepth(int depth)
+	{
+		myMaxDepth = depth;
+	}
+
+	public TranspositionTable getTranspositionTable()
+	{
+		return myTable;
+	}
+
+	public long getNodes()
+	{
+		return myNodes;
+	}
+
+	public int getBestScore()
+	{
+		return myBestScore;
+	}
+
+	/**
+	 * Searches one column on its own board. It starts from the best score found so far
+	 * by any column & raises that score when it beats it.
+	 */
+	@SuppressWarnings("serial")
+	private class ColumnSearch extends RecursiveTask<Void>
+	{
+		private GameBoard myBoard;
+		private int myColumn;
+		private int mySlot;
+		private AtomicInteger myAlpha;
+		private long myDeadline;
+		private int myScore;
+		private long myNodes;
+		private boolean myIsComplete;
+		private volatile NegamaxStrategy mySearch;
+
+		public ColumnSearch(GameBoard board, int col, int slot, AtomicInteger alpha, long deadline)
+		{
+			myBoard = board;
+			myColumn = col;
+			mySlot = slot;
+			myAlpha = alpha;
+			myDeadline = deadline;
+		}
+
+		protected Void compute()
+		{
+			NegamaxStrategy search = new NegamaxStrategy(myMaxDepth, 0, myTable);
+			mySearch = search;
+			if(myIsStopped) //stop() came before this search was there to stop
+			{
+				search.stop();
+			}
+			int alpha = myAlpha.get();
+			myScore = search.scoreColumn(myBoard, myColumn, mySlot, alpha, NegamaxStrategy.WIN_SCORE+1, myDeadline);
+			myNodes = search.getNodes();
+			myIsComplete = !search.isOutOfTime();
+			if(myIsComplete && myScore <= alpha)
+			{
+				myScore = -NegamaxStrategy.WIN_SCORE; //only known to be no better than another column
+			}
+			while(myIsComplete && myScore > alpha && !myAlpha.compareAndSet(alpha, myScore))
+			{
+				alpha = myAlpha.get();
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,499 @@
+package connectmodel;
+
+/**
+ * @purpose Solver plays perfectly on connect-four boards that fit in one bitboard
+ * (the standard 6x7 board & smaller), by proving the exact result of a position:
+ * who wins, or a draw, and how many moves it takes. It searches on its own copy of
+ * the position's bits, in GameBoard's bit layout, with moves that lose at once pruned,
+ * moves making the most threats tried first, a transposition table of proven bounds
+ * and null-window searches that narrow in on the exact score.
+ * Scores count the win's distance: a player who wins with their last possible piece
+ * scores 1, and every piece saved scores 1 more. Losses are negative, a draw is 0.
+ * @author madisongipson
+ *
+ * @input Game board and piece type of the player moving.
+ * @output Exact score of the position, or the best column to play.
+ */
+
+public class Solver implements Strategy
+{
+	public static final int WIN_LENGTH = 4;
+	public static final int DEFAULT_TABLE_MEGABYTES = 64;
+	public static final int FULL_COLUMN = Integer.MIN_VALUE; //analyze() score of a column that can't be played
+	public static final int UNSOLVED = Integer.MIN_VALUE+1; //analyze() score of a column a stop left unsolved
+	private static final int STOP_CHECK_NODES = 4096;
+
+	private int myNumColumns;
+	private int myColumnHeight;
+	private int myNumSpots;
+	private long myBottomMask;
+	private long myBoardMask;
+	private int[] myColumnOrder;
+	private TranspositionTable myTable;
+	private OpeningBook myOpeningBook;
+	private long[][] myMoves; //moves to try at each number of pieces on the board
+	private int[][] myMoveScores;
+	private long myNodes;
+	private volatile boolean myIsStopped;
+	private boolean myIsStoppedEarly;
+
+	public Solver()
+	{
+		this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+	}
+
+	public Solver(TranspositionTable table)
+	{
+		myTable = table;
+	}
+
+	/**
+	* Method to check if a board can be solved: one bitboard, two piece types & a win length of 4
+	* @param game board
+	* @return truth value of the solver working on the board
+	* @author madisongipson */
+	public static boolean isSupported(GameBoard gameboard)
+	{
+		return !GameBoard.isWide(gameboard.getNumRows(), gameboard.getNumColumns()) &&
+				gameboard.getWinLength() == WIN_LENGTH && gameboard.getTypes().size() == 2;
+	}
+
+	/**
+	* Method to find the exact score of the position for the player to move
+	* @param game board & piece type of the player to move
+	* @return score, positive if the player wins, negative if the player loses & 0 for a draw
+	* @throws IllegalArgumentException if the board is not supported
+	* @author madisongipson */
+	public int solve(GameBoard gameboard, PieceType type)
+	{
+		setGameBoard(gameboard);
+		myIsStoppedEarly = false;
+		int slot = gameboard.getSlot(type);
+		long position = gameboard.getBitboard(slot);
+		long mask = position | gameboard.getBitboard(gameboard.getOpponentSlot(slot));
+		return solve(position, mask, gameboard.getNumMoves());
+	}
+
+	/**
+	* Method to choose the column with the best exact score, from the opening book when the
+	* position is in it. Play stays perfect if the book was generated with the solver.
+	* Between equal scores the column nearer the center is chosen
+	* @param game board to move on & piece type of the player moving
+	* @return column to place the next piece into, -1 if every column is full
+	* @author madisongipson */
+	public int chooseColumn(GameBoard gameboard, PieceType type)
+	{
+		if(myOpeningBook != null)
+		{
+			int col = myOpeningBook.lookup(gameboard, type);
+			if(col > -1 && !gameboard.isColumnFull(col))
+			{
+				return col;
+			}
+		}
+		setGameBoard(gameboard);
+		myIsStoppedEarly = false;
+		int slot = gameboard.getSlot(type);
+		long position = gameboard.getBitboard(slot);
+		long mask = position | gameboard.getBitboard(gameboard.getOpponentSlot(slot));
+		int moves = gameboard.getNumMoves();
+		int score = solve(position, mask, moves);
+		long possible = getPossible(mask);
+		long wins = getWinningSpots(position, mask) & possible;
+		int fallback = -1;
+		for(int col : myColumnOrder)
+		{
+			long move = possible & getColumnMask(col);
+			if(move == 0)
+			{
+				continue;
+			}
+			if((wins & move) != 0 || moves+1 == myNumSpots)
+			{
+				return col;
+			}
+			if(fallback < 0)
+			{
+				fallback = col;
+			}
+			long next = mask | move;
+			if(myIsStopped || (getWinningSpots(position ^ mask, next) & getPossible(next)) != 0)
+			{
+				continue; //the opponent would win at once
+			}
+			//a null-window search only has to prove the column scores at least the position's score
+			if(-negamax(position ^ mask, next, moves+1, -score, -score+1) >= score && !myIsStopped)
+			{
+				return col;
+			}
+		}
+		if(myIsStopped)
+		{
+			myIsStoppedEarly = true;
+		}
+		return fallback;
+	}
+
+	/**
+	* Method to find the exact score of playing each column, as hints for a player
+	* @param game board & piece type of the player to move
+	* @return score of each column for the player, FULL_COLUMN for full columns & UNSOLVED
+	* for columns not solved because of stop(), which also makes isStoppedEarly() true
+	* @author madisongipson */
+	public int[] analyze(GameBoard gameboard, PieceType type)
+	{
+		setGameBoard(gameboard);
+		myIsStoppedEarly = false;
+		int slot = gameboard.getSlot(type);
+		long position = gameboard.getBitboard(slot);
+		long mask = position | gameboard.getBitboard(gameboard.getOpponentSlot(slot));
+		int moves = gameboard.getNumMoves();
+		int[] scores = new int[myNumColumns];
+		long possible = getPossible(mask);
+		long wins = getWinningSpots(position, mask) & possible;
+		for(int col : myColumnOrder)
+		{
+			long move = possible & getColumnMask(col);
+			if(move == 0)
+			{
+				scores[col] = FULL_COLUMN;
+			}
+			else if((wins & move) != 0)
+			{
+				scores[col] = (myNumSpots+1-moves)/2;
+			}
+			else if(moves+1 == myNumSpots)
+			{
+				scores[col] = 0; //last piece on the board
+			}
+			else
+			{
+				int score = myIsStopped? 0 : -solve(position ^ mask, mask | move, moves+1);
+				if(myIsStopped) //the score is only a bound, or was never searched
+				{
+					scores[col] = UNSOLVED;
+					myIsStoppedEarly = true;
+				}
+				else
+				{
+					scores[col] = score;
+				}
+			}
+		}
+		return scores;
+	}
+
+	/**
+	* Method to turn a score into the number of moves left for the winner
+	* @param game board the score is for & the score
+	* @return moves the winning player still has to make, counting only that player's
+	* moves, 0 for a draw
+	* @author madisongipson */
+	public static int getMovesToWin(GameBoard gameboard, int score)
+	{
+		int spots = gameboard.getNumRows()*gameboard.getNumColumns();
+		int moves = gameboard.getNumMoves();
+		if(score > 0)
+		{
+			return (spots+1-moves)/2 - score + 1;
+		}
+		if(score < 0)
+		{
+			return (spots-moves)/2 + score + 1; //the opponent moves once more before winning
+		}
+		return 0;
+	}
+
+	/**
+	* Method to narrow in on the exact score with null-window searches, each proving the
+	* score is above or below a guess. Guesses favor being near 0 first, since those
+	* searches are the cheapest
+	* @param bits of the player to move, bits of every piece & number of pieces
+	* @return exact score for the player to move
+	* @author madisongipson */
+	private int solve(long position, long mask, int moves)
+	{
+		if((getWinningSpots(position, mask) & getPossible(mask)) != 0)
+		{
+			return (myNumSpots+1-moves)/2;
+		}
+		int min = -(myNumSpots-moves)/2;
+		int max = (myNumSpots+1-moves)/2;
+		myTable.newSearch();
+		while(min < max && !myIsStopped)
+		{
+			int guess = min + (max-min)/2;
+			if(guess <= 0 && min/2 < guess)
+			{
+				guess = min/2;
+			}
+			else if(guess >= 0 && max/2 > guess)
+			{
+				guess = max/2;
+			}
+			int score = negamax(position, mask, moves, guess, guess+1);
+			if(score <= guess)
+			{
+				max = score;
+			}
+			else
+			{
+				min = score;
+			}
+		}
+		if(myIsStopped)
+		{
+			myIsStoppedEarly = true;
+		}
+		return min;
+	}
+
+	/**
+	* Method to score a position with alpha-beta negamax, for a player who can't win on
+	* this move (the caller checks that)
+	* @param bits of the player to move, bits of every piece, number of pieces, alpha & beta
+	* @return exact score if it is between alpha & beta, otherwise a bound past them
+	* @author madisongipson */
+	private int negamax(long position, long mask, int moves, int alpha, int beta)
+	{
+		if(++myNodes % STOP_CHECK_NODES == 0 && myIsStopped)
+		{
+			return alpha;
+		}
+		long possible = getNonLosingMoves(position, mask);
+		if(possible == 0)
+		{
+			return -(myNumSpots-moves)/2; //every move lets the opponent win next
+		}
+		if(moves >= myNumSpots-2)
+		{
+			return 0; //neither player can win with the last two pieces
+		}
+		int min = -(myNumSpots-2-moves)/2; //the opponent can't win on their next move
+		if(alpha < min)
+		{
+			alpha = min;
+			if(alpha >= beta)
+			{
+				return alpha;
+			}
+		}
+		int max = (myNumSpots-1-moves)/2; //the player can't win on this move
+		long key = (position + mask)*0x9E3779B97F4A7C15L; //position + mask is unique, the multiply spreads the index
+		long data = myTable.probe(key);
+		if(data != 0)
+		{
+			int stored = TranspositionTable.getScore(data);
+			if(TranspositionTable.getBound(data) == TranspositionTable.LOWER_BOUND)
+			{
+				min = stored;
+				if(alpha < min)
+				{
+					alpha = min;
+					if(alpha >= beta)
+					{
+						return alpha;
+					}
+				}
+			}
+			else
+			{
+				max = stored;
+			}
+		}
+		if(beta > max)
+		{
+			beta = max;
+			if(alpha >= beta)
+			{
+				return beta;
+			}
+		}
+
+		long[] candidates = myMoves[moves];
+		int[] scores = myMoveScores[moves];
+		int numMoves = 0;
+		for(int i=myColumnOrder.length-1; i>-1; i--) //sorted insert keeps the center first among equal scores
+		{
+			long move = possible & getColumnMask(myColumnOrder[i]);
+			if(move != 0)
+			{
+				int score = Long.bitCount(getWinningSpots(position | move, mask));
+				int spot = numMoves++;
+				while(spot > 0 && scores[spot-1] > score)
+				{
+					candidates[spot] = candidates[spot-1];
+					scores[spot] = scores[spot-1];
+					spot--;
+				}
+				candidates[spot] = move;
+				scores[spot] = score;
+			}
+		}
+		for(int i=numMoves-1; i>-1; i--) //most threats first
+		{
+			long move = candidates[i];
+			int score = -negamax(position ^ mask, mask | move, moves+1, -beta, -alpha);
+			if(myIsStopped)
+			{
+				return alpha; //nothing is stored from a search that was cut short
+			}
+			if(score >= beta)
+			{
+				myTable.store(key, myNumSpots-moves, score, TranspositionTable.LOWER_BOUND, -1);
+				return score;
+			}
+			if(score > alpha)
+			{
+				alpha = score;
+			}
+		}
+		myTable.store(key, myNumSpots-moves, alpha, TranspositionTable.UPPER_BOUND, -1);
+		return alpha;
+	}
+
+	/**
+	* Method to find the moves that don't let the opponent win right away
+	* @param bits of the player to move & bits of every piece
+	* @return bitboard of the spots to play, 0 if every move loses
+	* @author madisongipson */
+	private long getNonLosingMoves(long position, long mask)
+	{
+		long possible = getPossible(mask);
+		long opponentWins = getWinningSpots(position ^ mask, mask);
+		long forced = possible & opponentWins;
+		if(forced != 0)
+		{
+			if((forced & (forced-1)) != 0)
+			{
+				return 0; //two wins to block
+			}
+			possible = forced;
+		}
+		return possible & ~(opponentWins >>> 1); //don't play under the opponent's win
+	}
+
+	/**
+	* Method to find the spots a piece can be dropped into
+	* @param bits of every piece
+	* @return bitboard of the lowest empty spot of every column that isn't full
+	* @author madisongipson */
+	private long getPossible(long mask)
+	{
+		return (mask + myBottomMask) & myBoardMask;
+	}
+
+	/**
+	* Method to find the empty spots that would complete four in a row for a player
+	* @param bits of the player & bits of every piece
+	* @return bitboard of the empty spots that win, whether or not they can be played yet
+	* @author madisongipson */
+	private long getWinningSpots(long position, long mask)
+	{
+		long wins = (position << 1) & (position << 2) & (position << 3); //three below
+		wins |= getLineWins(position, myColumnHeight); //horizontal
+		wins |= getLineWins(position, myColumnHeight-1); //diagonals
+		wins |= getLineWins(position, myColumnHeight+1);
+		return wins & (myBoardMask ^ mask);
+	}
+
+	/**
+	* Method to find the spots next to three in a row along one direction, or filling a gap
+	* @param bits of the player & bit distance between neighboring spots
+	* @return bitboard of the spots, empty or not
+	* @author madisongipson */
+	private static long getLineWins(long position, int shift)
+	{
+		if(3*shift >= Long.SIZE)
+		{
+			return 0; //shift counts wrap at 64, & four in a row can't fit on the board anyway
+		}
+		long pair = (position << shift) & (position << 2*shift);
+		long wins = pair & (position << 3*shift);
+		wins |= pair & (position >>> shift);
+		pair = (position >>> shift) & (position >>> 2*shift);
+		wins |= pair & (position << shift);
+		wins |= pair & (position >>> 3*shift);
+		return wins;
+	}
+
+	private long getColumnMask(int col)
+	{
+		return ((1L << (myColumnHeight-1)) - 1) << (col*myColumnHeight);
+	}
+
+	/**
+	* Method to set up the masks & move lists for a board's size, when it changes
+	* @param game board
+	* @author madisongipson */
+	private void setGameBoard(GameBoard gameboard)
+	{
+		if(!isSupported(gameboard))
+		{
+			throw new IllegalArgumentException("Only boards that fit in a bitboard with a win length of 4 can be solved");
+		}
+		int rows = gameboard.getNumRows();
+		int cols = gameboard.getNumColumns();
+		if(myColumnOrder != null && myNumColumns == cols && myColumnHeight == rows+1)
+		{
+			return;
+		}
+		myNumColumns = cols;
+		myColumnHeight = rows+1;
+		myNumSpots = rows*cols;
+		myBottomMask = 0;
+		for(int col=0; col<cols; col++)
+		{
+			myBottomMask |= 1L << (col*myColumnHeight);
+		}
+		myBoardMask = myBottomMask * ((1L << rows) - 1);
+		myColumnOrder = NegamaxStrategy.getCenterFirstOrder(cols);
+		myMoves = new long[myNumSpots+1][cols];
+		myMoveScores = new int[myNumSpots+1][cols];
+		myTable.clear(); //scores depend on the board size
+	}
+
+	/**
+	* Method to make a running solve give up; safe to call from another thread. The
+	* result of a stopped solve is not exact, and solves started afterwards give up
+	* right away until restart()
+	* @author madisongipson */
+	public void stop()
+	{
+		myIsStopped = true;
+	}
+
+	public void restart()
+	{
+		myIsStopped = false;
+	}
+
+	/**
+	* Method to check if the last solve or analysis was stopped before it finished
+	* @return truth value of the last result not being exact
+	* @author madisongipson */
+	public boolean isStoppedEarly()
+	{
+		return myIsStoppedEarly;
+	}
+
+	public long getNodes()
+	{
+		return myNodes;
+	}
+
+	public TranspositionTable getTranspositionTable()
+	{
+		return myTable;
+	}
+
+	public OpeningBook getOpeningBook()
+	{
+		return myOpeningBook;
+	}
+
+	public void setOpeningBook(OpeningBook book)
+	{
+		myOpeningBook = book;
+	}
+}
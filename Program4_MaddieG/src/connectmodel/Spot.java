@@ -0,0 +1,52 @@
+package connectmodel;
+
+/**
+ * @purpose Spot is a column & row on the game board, used where GameBoard reports
+ * positions such as the last piece placed or where a win begins & ends.
+ * @author madisongipson
+ *
+ * @input Column and row.
+ * @output 
+ */
+
+public class Spot
+{
+	private final int myColumn;
+	private final int myRow;
+	
+	public Spot(int col, int row)
+	{
+		myColumn = col;
+		myRow = row;
+	}
+	
+	public int getColumn()
+	{
+		return myColumn;
+	}
+	
+	public int getRow()
+	{
+		return myRow;
+	}
+	
+	public boolean equals(Object other)
+	{
+		if(!(other instanceof Spot))
+		{
+			return false;
+		}
+		Spot spot = (Spot)other;
+		return myColumn == spot.myColumn && myRow == spot.myRow;
+	}
+	
+	public int hashCode()
+	{
+		return 31*myColumn + myRow;
+	}
+	
+	public String toString()
+	{
+		return "("+myColumn+", "+myRow+")";
+	}
+}
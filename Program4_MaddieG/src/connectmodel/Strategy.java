@@ -0,0 +1,36 @@
+package connectmodel;
+
+/**
+ * @purpose Strategy is how a ComputerPlayer decides which column to play next.
+ * Different strategies can be swapped in without changing the ComputerPlayer.
+ * @author madisongipson
+ *
+ * @input Game board and piece type of the player moving.
+ * @output Column to place the next piece into.
+ */
+
+public interface Strategy
+{
+	/**
+	* Method to choose the column to place the next piece into
+	* @param game board to move on & piece type of the player moving
+	* @return column to place the next piece into
+	* @author madisongipson */
+	public int chooseColumn(GameBoard gameboard, PieceType type);
+	
+	/**
+	* Method to end a search running on another thread early, so it returns the best
+	* column found so far. Strategies that answer right away have nothing to stop
+	* @author madisongipson */
+	public default void stop()
+	{
+	}
+
+	/**
+	* Method to let searches run again after stop(). Searches don't clear a stop when they
+	* start, so one made before a search on another thread gets going still stops it
+	* @author madisongipson */
+	public default void restart()
+	{
+	}
+}
@@ -0,0 +1,272 @@
+package connectmodel;
+
+import java.util.Arrays;
+
+/**
+ * @purpose ThreatEvaluator scores a position for the search without looking at the
+ * whole board. It knows every window of win length on the board & keeps, for each one,
+ * how many pieces of each type are in it. Placing or taking back a piece only updates
+ * the windows through its spot, so reading the score is constant time. A position is
+ * scored from:
+ * open windows, those holding only one type's pieces, worth more the fuller they are;
+ * threats, open windows one piece short of a win, worth more on the rows where the
+ * player can expect to get them (odd rows, counting from 1, for the player who moved
+ * first, even rows for the other);
+ * center control, each piece being worth the number of windows through its spot.
+ * @author madisongipson
+ *
+ * @input Board size & win length, then every piece placed or taken back.
+ * @output Score of the position for either piece type.
+ */
+
+public class ThreatEvaluator
+{
+	public static final int THREAT_SCORE = 32;
+	public static final int GOOD_THREAT_SCORE = 64; //added to threats on the player's own rows
+	public static final int SCORE_LIMIT = 500000; //scores stay well clear of NegamaxStrategy.WIN_SCORE
+	private static final int WINDOW_INTS = 3;
+	private static final int PLACED_SUM = 2;
+
+	private int myColumnHeight;
+	private int myWinLength;
+	private int myNumWindows;
+	private int[] myCellWindowStarts; //windows through spot i are myCellWindows[starts[i]..starts[i+1]]
+	private int[] myCellWindows;
+	private int[] myWindowSpotSums; //sum of the spots in each window
+	private int[] myWindowScores; //score of an open window by number of pieces in it
+
+	private int[] myWindows; //per window, side by side: pieces of slot 0, pieces of slot 1 & sum of the spots holding pieces
+	private int[] myOpenScores;
+	private int[] myCenterScores;
+	private int[] myThreats; //threats of each slot at slot*2 + (row & 1)
+
+	public ThreatEvaluator(int rows, int cols, int winLength)
+	{
+		myColumnHeight = rows+1;
+		myWinLength = winLength;
+		setWindows(rows, cols);
+		myWindowScores = new int[winLength+1];
+		for(int pieces=1; pieces<winLength; pieces++)
+		{
+			myWindowScores[pieces] = pieces*pieces;
+		}
+		myWindows = new int[WINDOW_INTS*myNumWindows]; //a board with one type leaves the second slot empty
+		myOpenScores = new int[2];
+		myCenterScores = new int[2];
+		myThreats = new int[2*2];
+	}
+
+	/**
+	 * Copies another evaluator, sharing the window tables that never change
+	 * @param evaluator to copy
+	 */
+	public ThreatEvaluator(ThreatEvaluator evaluator)
+	{
+		myColumnHeight = evaluator.myColumnHeight;
+		myWinLength = evaluator.myWinLength;
+		myNumWindows = evaluator.myNumWindows;
+		myCellWindowStarts = evaluator.myCellWindowStarts;
+		myCellWindows = evaluator.myCellWindows;
+		myWindowSpotSums = evaluator.myWindowSpotSums;
+		myWindowScores = evaluator.myWindowScores;
+		myWindows = evaluator.myWindows.clone();
+		myOpenScores = evaluator.myOpenScores.clone();
+		myCenterScores = evaluator.myCenterScores.clone();
+		myThreats = evaluator.myThreats.clone();
+	}
+
+	/**
+	* Method to list every window of win length & the windows through each spot, with
+	* spots numbered like GameBoard's bits
+	* @param rows & columns
+	* @author madisongipson */
+	private void setWindows(int rows, int cols)
+	{
+		int[][] steps = {{0, 1}, {1, 0}, {1, 1}, {1, -1}}; //column & row step of each direction
+		int numSpots = myColumnHeight*cols;
+		int[] windowBegins = new int[4*numSpots];
+		int[] windowSteps = new int[4*numSpots];
+		int[] counts = new int[numSpots+1];
+		for(int col=0; col<cols; col++)
+		{
+			for(int row=0; row<rows; row++)
+			{
+				for(int[] step : steps)
+				{
+					int endCol = col + step[0]*(myWinLength-1);
+					int endRow = row + step[1]*(myWinLength-1);
+					if(endCol < cols && endRow > -1 && endRow < rows)
+					{
+						windowBegins[myNumWindows] = col*myColumnHeight + row;
+						windowSteps[myNumWindows++] = step[0]*myColumnHeight + step[1];
+						for(int i=0; i<myWinLength; i++)
+						{
+							counts[(col + step[0]*i)*myColumnHeight + row + step[1]*i]++;
+						}
+					}
+				}
+			}
+		}
+		myCellWindowStarts = new int[numSpots+1];
+		for(int spot=0; spot<numSpots; spot++)
+		{
+			myCellWindowStarts[spot+1] = myCellWindowStarts[spot] + counts[spot];
+		}
+		myCellWindows = new int[myCellWindowStarts[numSpots]];
+		myWindowSpotSums = new int[myNumWindows];
+		int[] next = Arrays.copyOf(myCellWindowStarts, numSpots);
+		for(int window=0; window<myNumWindows; window++)
+		{
+			for(int i=0; i<myWinLength; i++)
+			{
+				int spot = windowBegins[window] + windowSteps[window]*i;
+				myCellWindows[next[spot]++] = window;
+				myWindowSpotSums[window] += spot;
+			}
+		}
+	}
+
+	/**
+	* Method to update the windows through a spot for a piece placed there. Only the
+	* placing player's windows gain, & an opponent's open window it lands in is lost
+	* @param spot & slot of the piece
+	* @author madisongipson */
+	public void place(int spot, int slot)
+	{
+		int opponent = 1-slot;
+		myCenterScores[slot] += myCellWindowStarts[spot+1] - myCellWindowStarts[spot];
+		for(int i=myCellWindowStarts[spot]; i<myCellWindowStarts[spot+1]; i++)
+		{
+			int window = myCellWindows[i];
+			int base = window*WINDOW_INTS;
+			int mine = myWindows[base + slot]++;
+			int theirs = myWindows[base + opponent];
+			myWindows[base + PLACED_SUM] += spot;
+			if(theirs > 0)
+			{
+				if(mine == 0) //the opponent's open window is blocked
+				{
+					myOpenScores[opponent] -= myWindowScores[theirs];
+					if(theirs == myWinLength-1)
+					{
+						myThreats[opponent*2 + getParity(spot)]--; //the spot was their threat
+					}
+				}
+			}
+			else
+			{
+				myOpenScores[slot] += myWindowScores[mine+1] - myWindowScores[mine];
+				if(mine == myWinLength-2)
+				{
+					myThreats[slot*2 + getParity(myWindowSpotSums[window] - myWindows[base + PLACED_SUM])]++;
+				}
+				else if(mine == myWinLength-1)
+				{
+					myThreats[slot*2 + getParity(spot)]--; //the threat was filled
+				}
+			}
+		}
+	}
+
+	/**
+	* Method to update the windows through a spot for a piece taken back from there,
+	* undoing place()
+	* @param spot & slot of the piece
+	* @author madisongipson */
+	public void remove(int spot, int slot)
+	{
+		int opponent = 1-slot;
+		myCenterScores[slot] -= myCellWindowStarts[spot+1] - myCellWindowStarts[spot];
+		for(int i=myCellWindowStarts[spot]; i<myCellWindowStarts[spot+1]; i++)
+		{
+			int window = myCellWindows[i];
+			int base = window*WINDOW_INTS;
+			int mine = myWindows[base + slot]--;
+			int theirs = myWindows[base + opponent];
+			if(theirs > 0)
+			{
+				if(mine == 1) //the opponent's window is open again
+				{
+					myOpenScores[opponent] += myWindowScores[theirs];
+					if(theirs == myWinLength-1)
+					{
+						myThreats[opponent*2 + getParity(spot)]++;
+					}
+				}
+			}
+			else
+			{
+				myOpenScores[slot] += myWindowScores[mine-1] - myWindowScores[mine];
+				if(mine == myWinLength-1)
+				{
+					myThreats[slot*2 + getParity(myWindowSpotSums[window] - myWindows[base + PLACED_SUM])]--;
+				}
+				else if(mine == myWinLength)
+				{
+					myThreats[slot*2 + getParity(spot)]++;
+				}
+			}
+			myWindows[base + PLACED_SUM] -= spot;
+		}
+	}
+
+	/**
+	* Method to find the row parity of a spot
+	* @param spot
+	* @return 0 for rows 1, 3, 5... counting from 1, 1 for rows 2, 4, 6...
+	* @author madisongipson */
+	private int getParity(int spot)
+	{
+		return spot % myColumnHeight & 1;
+	}
+
+	/**
+	* Method to score the position for the player to move
+	* @param slot of the player to move & whether that player moved first
+	* @return score, positive when the player is ahead, within +/- SCORE_LIMIT
+	* @author madisongipson */
+	public int evaluate(int slot, boolean movedFirst)
+	{
+		int opponent = 1-slot;
+		int score = getTotal(slot, movedFirst? 0 : 1) - getTotal(opponent, movedFirst? 1 : 0);
+		return Math.max(-SCORE_LIMIT, Math.min(SCORE_LIMIT, score));
+	}
+
+	/**
+	* Method to total one player's score
+	* @param slot & the row parity (row & 1) of the player's good threats
+	* @return score of the player's open windows, threats & center control
+	* @author madisongipson */
+	private int getTotal(int slot, int goodParity)
+	{
+		int threats = myThreats[slot*2] + myThreats[slot*2 + 1];
+		return myOpenScores[slot] + myCenterScores[slot] + THREAT_SCORE*threats +
+				GOOD_THREAT_SCORE*myThreats[slot*2 + goodParity];
+	}
+
+	/**
+	* Method to empty every window, for a board being reset
+	* @author madisongipson */
+	public void reset()
+	{
+		Arrays.fill(myWindows, 0);
+		Arrays.fill(myOpenScores, 0);
+		Arrays.fill(myCenterScores, 0);
+		Arrays.fill(myThreats, 0);
+	}
+
+	public int getNumWindows()
+	{
+		return myNumWindows;
+	}
+
+	/**
+	* Method to get the number of threats a player has on rows of one parity
+	* @param slot & row parity, 0 for rows 1, 3, 5... counting from 1, or 1 for rows 2, 4, 6...
+	* @return number of threats
+	* @author madisongipson */
+	public int getThreats(int slot, int parity)
+	{
+		return myThreats[slot*2 + parity];
+	}
+}
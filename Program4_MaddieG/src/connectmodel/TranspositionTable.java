@@ -0,0 +1,177 @@
+package connectmodel;
+
+import java.util.Arrays;
+
+/**
+ * @purpose TranspositionTable remembers positions a search has already scored so they
+ * are not searched again when reached through a different order of moves. It is one
+ * fixed-size long array of (key, data) pairs, so using it never allocates.
+ * The data long packs the score (32 bits), depth (10 bits), bound type (2 bits), best
+ * move (12 bits, enough for the widest board) & search age (8 bits). Depths past
+ * MAX_DEPTH are stored as MAX_DEPTH, which only makes an entry look shallower.
+ * Several searching threads may share one table without locks: the key is stored
+ * XORed with its data, so a pair torn by two threads writing at once no longer
+ * matches its key and is treated as a miss. The counters are not synchronized and
+ * are only approximate while threads share the table.
+ * @author madisongipson
+ *
+ * @input Size in megabytes and replacement policy.
+ * @output Stored score, depth, bound & best move of a position.
+ */
+
+public class TranspositionTable
+{
+	public static final int EXACT = 1;
+	public static final int LOWER_BOUND = 2;
+	public static final int UPPER_BOUND = 3;
+	public static final int MAX_DEPTH = 0x3FF;
+
+	/**
+	* DEPTH_PREFERRED keeps the deeper of two entries unless the old one is from an earlier
+	* search; ALWAYS_REPLACE keeps the newest.
+	*/
+	public enum ReplacementPolicy
+	{
+		DEPTH_PREFERRED,
+		ALWAYS_REPLACE
+	}
+
+	private static final int ENTRY_LONGS = 2;
+	private static final int BYTES_PER_ENTRY = ENTRY_LONGS*Long.BYTES;
+
+	private long[] myTable;
+	private long myIndexMask;
+	private ReplacementPolicy myPolicy;
+	private int myAge;
+	private long myHits;
+	private long myMisses;
+	private long myCollisions;
+
+	public TranspositionTable(int megabytes)
+	{
+		this(megabytes, ReplacementPolicy.DEPTH_PREFERRED);
+	}
+
+	public TranspositionTable(int megabytes, ReplacementPolicy policy)
+	{
+		if(megabytes < 1)
+		{
+			throw new IllegalArgumentException("Transposition table needs at least 1 MB");
+		}
+		long entries = Long.highestOneBit(megabytes*1024L*1024L/BYTES_PER_ENTRY); //power of two so index is a mask
+		myTable = new long[(int)(entries*ENTRY_LONGS)];
+		myIndexMask = entries-1;
+		myPolicy = policy;
+	}
+
+	/**
+	* Method to look up a position
+	* @param key of the position
+	* @return data of the stored entry, 0 if the position is not stored
+	* @author madisongipson */
+	public long probe(long key)
+	{
+		int index = (int)(key & myIndexMask)*ENTRY_LONGS;
+		long data = myTable[index+1];
+		if(data != 0 && (myTable[index] ^ data) == key)
+		{
+			myHits++;
+			return data;
+		}
+		if(data != 0)
+		{
+			myCollisions++; //another position holds the spot
+		}
+		myMisses++;
+		return 0;
+	}
+
+	/**
+	* Method to store the result of searching a position
+	* @param key of the position, depth searched, score, bound type & best move (-1 if none)
+	* @author madisongipson */
+	public void store(long key, int depth, int score, int bound, int move)
+	{
+		int index = (int)(key & myIndexMask)*ENTRY_LONGS;
+		long old = myTable[index+1];
+		if(myPolicy == ReplacementPolicy.DEPTH_PREFERRED && old != 0 && (myTable[index] ^ old) != key
+				&& getAge(old) == myAge && getDepth(old) > depth)
+		{
+			return; //keep the deeper entry from this search
+		}
+		long data = (score & 0xFFFFFFFFL) | ((long)Math.min(depth, MAX_DEPTH) << 32) | ((long)bound << 42)
+				| ((long)((move+1) & 0xFFF) << 44) | ((long)myAge << 56);
+		myTable[index] = key ^ data;
+		myTable[index+1] = data;
+	}
+
+	/**
+	* Method to mark the start of a new search, so entries from older searches are
+	* replaced first
+	* @author madisongipson */
+	public void newSearch()
+	{
+		myAge = (myAge+1) & 0xFF;
+	}
+
+	/**
+	* Method to empty the table & its counters
+	* @author madisongipson */
+	public void clear()
+	{
+		Arrays.fill(myTable, 0L);
+		myHits = 0;
+		myMisses = 0;
+		myCollisions = 0;
+	}
+
+	public static int getScore(long data)
+	{
+		return (int)data;
+	}
+
+	public static int getDepth(long data)
+	{
+		return (int)(data >>> 32) & MAX_DEPTH;
+	}
+
+	public static int getBound(long data)
+	{
+		return (int)(data >>> 42) & 0x3;
+	}
+
+	public static int getMove(long data)
+	{
+		return ((int)(data >>> 44) & 0xFFF)-1;
+	}
+
+	private static int getAge(long data)
+	{
+		return (int)(data >>> 56) & 0xFF;
+	}
+
+	public int getNumEntries()
+	{
+		return (int)(myIndexMask+1);
+	}
+
+	public ReplacementPolicy getPolicy()
+	{
+		return myPolicy;
+	}
+
+	public long getHits()
+	{
+		return myHits;
+	}
+
+	public long getMisses()
+	{
+		return myMisses;
+	}
+
+	public long getCollisions()
+	{
+		return myCollisions;
+	}
+}
@@ -0,0 +1,210 @@
+package connectmodelserver;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import connectmodel.Difficulty;
+import connectmodel.GameSession;
+
+/**
+ * @purpose ClientConnection is the state GameServer keeps for one client: its channel,
+ * the bytes read but not yet split into lines, the replies waiting to be written, and
+ * the game it is playing. Only the server's event loop thread touches it.
+ * @author madisongipson
+ *
+ * @input Bytes read from the client and reply lines.
+ * @output Complete request lines and the reply bytes to write.
+ */
+
+public class ClientConnection
+{
+	private static final int OUTPUT_BYTES = 256;
+
+	private SocketChannel myChannel;
+	private ByteBuffer myInput; //left in write mode between reads
+	private ByteBuffer myOutput; //left in write mode between writes
+	private GameSession mySession;
+	private Difficulty myDifficulty;
+	private boolean myIsThinking;
+	private int myGameNumber; //a computer move from an earlier game is dropped
+	private long myGameId;
+	private long myCommitPosition; //journal position the replies wait on
+	private boolean myIsAwaitingCommit;
+	private boolean myIsClosing;
+
+	public ClientConnection(SocketChannel channel, int maxLineBytes, Difficulty difficulty)
+	{
+		myChannel = channel;
+		myInput = ByteBuffer.allocate(maxLineBytes);
+		myOutput = ByteBuffer.allocate(OUTPUT_BYTES);
+		myDifficulty = difficulty;
+		myGameId = -1;
+	}
+
+	/**
+	* Method to take the next complete line out of the bytes read so far
+	* @return line without its line ending, null if no line is complete yet
+	* @author madisongipson */
+	public String nextLine()
+	{
+		for(int i=0; i<myInput.position(); i++)
+		{
+			if(myInput.get(i) == '\n')
+			{
+				int end = i > 0 && myInput.get(i-1) == '\r'? i-1 : i;
+				String line = new String(myInput.array(), 0, end, StandardCharsets.US_ASCII);
+				myInput.flip();
+				myInput.position(i+1);
+				myInput.compact();
+				return line;
+			}
+		}
+		return null;
+	}
+
+	/**
+	* Method to check if the input is full without a complete line, which means the
+	* client sent a line longer than the server allows
+	* @return truth value of the input holding no room & no line
+	* @author madisongipson */
+	public boolean isInputFull()
+	{
+		return !myInput.hasRemaining();
+	}
+
+	/**
+	* Method to add a reply line to the bytes waiting to be written
+	* @param line without a line ending
+	* @author madisongipson */
+	public void queue(String line)
+	{
+		byte[] bytes = (line+"\n").getBytes(StandardCharsets.US_ASCII);
+		if(myOutput.remaining() < bytes.length)
+		{
+			ByteBuffer bigger = ByteBuffer.allocate(Math.max(myOutput.capacity()*2, myOutput.position()+bytes.length));
+			myOutput.flip();
+			bigger.put(myOutput);
+			myOutput = bigger;
+		}
+		myOutput.put(bytes);
+	}
+
+	/**
+	* Method to get the number of reply bytes not yet written
+	* @return bytes waiting
+	* @author madisongipson */
+	public int getPendingBytes()
+	{
+		return myOutput.position();
+	}
+
+	public SocketChannel getChannel()
+	{
+		return myChannel;
+	}
+
+	public ByteBuffer getInput()
+	{
+		return myInput;
+	}
+
+	public ByteBuffer getOutput()
+	{
+		return myOutput;
+	}
+
+	public GameSession getSession()
+	{
+		return mySession;
+	}
+
+	/**
+	* Method to start playing a new game, so a computer move still being searched for
+	* the old one is dropped when it arrives
+	* @param session of the new game
+	* @author madisongipson */
+	public void setSession(GameSession session)
+	{
+		mySession = session;
+		myGameNumber++;
+		myIsThinking = false;
+	}
+
+	/**
+	* Method to get the id the game is known by, which RESUME takes
+	* @return id of the game, -1 if there is none
+	* @author madisongipson */
+	public long getGameId()
+	{
+		return myGameId;
+	}
+
+	public void setGameId(long id)
+	{
+		myGameId = id;
+	}
+
+	/**
+	* Method to get how far the game journal must be committed before the replies
+	* waiting can be written, so a client never hears of a move a crash could lose
+	* @return journal position of the last record for this client's game
+	* @author madisongipson */
+	public long getCommitPosition()
+	{
+		return myCommitPosition;
+	}
+
+	public void setCommitPosition(long position)
+	{
+		myCommitPosition = position;
+	}
+
+	public boolean isAwaitingCommit()
+	{
+		return myIsAwaitingCommit;
+	}
+
+	public void setAwaitingCommit(boolean awaiting)
+	{
+		myIsAwaitingCommit = awaiting;
+	}
+
+	public Difficulty getDifficulty()
+	{
+		return myDifficulty;
+	}
+
+	public void setDifficulty(Difficulty difficulty)
+	{
+		myDifficulty = difficulty;
+	}
+
+	public boolean isThinking()
+	{
+		return myIsThinking;
+	}
+
+	public void setThinking(boolean thinking)
+	{
+		myIsThinking = thinking;
+	}
+
+	public int getGameNumber()
+	{
+		return myGameNumber;
+	}
+
+	public boolean isClosing()
+	{
+		return myIsClosing;
+	}
+
+	/**
+	* Method to close the connection once every reply waiting has been written
+	* @author madisongipson */
+	public void closeAfterWrite()
+	{
+		myIsClosing = true;
+	}
+}
@@ -0,0 +1,643 @@
+package connectmodelserver;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import connectmodel.Difficulty;
+
+/**
+ * @purpose GameJournal keeps the games in progress on a server safe across a restart.
+ * Every new game, move & finished game is appended to a journal as a fixed size record
+ * with a checksum. A commit thread writes & syncs whatever records built up while the
+ * last sync ran, so one sync covers the moves of every game played meanwhile (group
+ * commit), and reports how far the journal is safe so replies can wait for it.
+ * Once the journal grows past a limit, the games in progress are written to a snapshot
+ * and the journal starts a new segment file; older segments are deleted once the
+ * snapshot is safe. Recovery reads the snapshot & replays only the segments after it,
+ * so it never reads more than the limit of journal, and stops at the first torn or
+ * corrupt record. A torn record at the end of the last segment is what a crash leaves,
+ * and is cut off. A bad record anywhere else is corruption: nothing after it is
+ * replayed, its segment is cut there & kept whole as journal.N.bad, and later segments
+ * are set aside as .bad files too, so the journal goes on from the games recovered.
+ * The game methods must all be called from one thread.
+ * @author madisongipson
+ *
+ * @input Directory to keep the journal in, then new games, moves & finished games.
+ * @output Journal segments & snapshot, and the games in progress after a restart.
+ */
+
+public class GameJournal
+{
+	public static final int RECORD_BYTES = 28;
+	public static final long DEFAULT_SNAPSHOT_BYTES = 4*1024*1024;
+	private static final int SNAPSHOT_MAGIC = 0x4334534E; //"C4SN"
+	private static final int SNAPSHOT_VERSION = 1;
+	private static final String SNAPSHOT_NAME = "snapshot";
+	private static final String SEGMENT_PREFIX = "journal.";
+	private static final byte NEW_GAME = 1;
+	private static final byte MOVE = 2;
+	private static final byte END_GAME = 3;
+	private static final int BUFFER_BYTES = 64*1024;
+	private static final Logger LOGGER = Logger.getLogger(GameJournal.class.getName());
+
+	private File myDirectory;
+	private long mySnapshotBytes;
+	private HashMap<Long, SavedGame> myGames;
+	private long myNextId;
+	private long myBytesSinceSnapshot;
+	private long myFillSegment; //segment new records go to
+	private CRC32 myChecksum; //used only by the thread calling the game methods
+	private Thread myCommitThread;
+	private Runnable myCommitListener;
+
+	//shared with the commit thread, guarded by this
+	private ByteBuffer myFilling;
+	private ByteBuffer myDraining;
+	private long myAppended; //bytes appended since the journal was opened
+	private long myCommitted; //of those, bytes written & synced
+	private byte[] mySnapshot; //waiting to be written once the segment before it is synced
+	private long mySnapshotSegment;
+	private long myRotatePosition;
+	private boolean myIsSnapshotPending;
+	private boolean myIsClosed;
+	private boolean myIsFailed;
+
+	//used only by the commit thread
+	private FileChannel mySegment;
+	private long myFirstSegment; //oldest segment still on disk
+
+	/**
+	* Opens the journal in a directory, recovering the games in progress from it
+	* @param directory to keep the journal in, made if it doesn't exist
+	* @param snapshotBytes journal bytes to write before taking a snapshot, which bounds recovery
+	* @throws IOException if the directory can't be used or its snapshot is corrupt
+	*/
+	public GameJournal(File directory, long snapshotBytes) throws IOException
+	{
+		if(snapshotBytes < RECORD_BYTES)
+		{
+			throw new IllegalArgumentException("Snapshots every "+snapshotBytes+" bytes is less than a record");
+		}
+		if(!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new IOException("Could not make journal directory "+directory);
+		}
+		myDirectory = directory;
+		mySnapshotBytes = snapshotBytes;
+		myGames = new HashMap<Long, SavedGame>();
+		myChecksum = new CRC32();
+		myFilling = ByteBuffer.allocate(BUFFER_BYTES);
+		myDraining = ByteBuffer.allocate(BUFFER_BYTES);
+		recover();
+		mySegment = openSegment(myFillSegment);
+		myCommitThread = new Thread(this::commitLoop, "journal-commit");
+		myCommitThread.setDaemon(true);
+		myCommitThread.start();
+	}
+
+	/**
+	* Method to read the snapshot & replay the segments after it
+	* @author madisongipson */
+	private void recover() throws IOException
+	{
+		File snapshot = new File(myDirectory, SNAPSHOT_NAME);
+		myFirstSegment = 0;
+		if(snapshot.isFile())
+		{
+			readSnapshot(snapshot);
+		}
+		long lastSegment = myFirstSegment-1;
+		for(File file : myDirectory.listFiles())
+		{
+			long segment = getSegmentNumber(file);
+			if(segment >= 0 && segment < myFirstSegment)
+			{
+				Files.deleteIfExists(file.toPath()); //left behind by a crash right after a snapshot
+			}
+			lastSegment = Math.max(lastSegment, segment);
+		}
+		byte[] record = new byte[RECORD_BYTES];
+		for(long segment=myFirstSegment; segment<=lastSegment; segment++)
+		{
+			File file = getSegmentFile(segment);
+			if(!file.isFile())
+			{
+				continue;
+			}
+			long goodBytes = replaySegment(file, record);
+			myBytesSinceSnapshot += goodBytes;
+			if(goodBytes == file.length())
+			{
+				continue;
+			}
+			if(segment < lastSegment || goodBytes+RECORD_BYTES < file.length())
+			{
+				LOGGER.warning("Journal "+file+" has a corrupt record after "+goodBytes+" bytes; later moves are not recovered");
+				Files.copy(file.toPath(), getBadFile(segment).toPath(), StandardCopyOption.REPLACE_EXISTING);
+				for(long later=segment+1; later<=lastSegment; later++)
+				{
+					File laterFile = getSegmentFile(later);
+					if(laterFile.isFile())
+					{
+						Files.move(laterFile.toPath(), getBadFile(later).toPath(), StandardCopyOption.REPLACE_EXISTING);
+					}
+				}
+			}
+			truncate(file, goodBytes); //so the next recovery doesn't find it again
+			break;
+		}
+		myFillSegment = lastSegment+1; //never appends after a torn record
+	}
+
+	/**
+	* Method to replay a segment's records up to its end or its first bad record
+	* @param segment file & array to read records into
+	* @return bytes of whole, correct records replayed
+	* @author madisongipson */
+	private long replaySegment(File file, byte[] record) throws IOException
+	{
+		long goodBytes = 0;
+		try(DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+		{
+			while(readRecord(input, record))
+			{
+				replay(ByteBuffer.wrap(record));
+				goodBytes += RECORD_BYTES;
+			}
+		}
+		return goodBytes;
+	}
+
+	private static void truncate(File file, long length) throws IOException
+	{
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE))
+		{
+			channel.truncate(length);
+			channel.force(true);
+		}
+	}
+
+	private void readSnapshot(File snapshot) throws IOException
+	{
+		byte[] bytes = Files.readAllBytes(snapshot.toPath());
+		myChecksum.reset();
+		myChecksum.update(bytes, 0, Math.max(bytes.length-4, 0));
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		if(bytes.length < 32 || buffer.getInt(bytes.length-4) != (int)myChecksum.getValue() ||
+				buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION)
+		{
+			throw new IOException(snapshot+" is not a whole game snapshot");
+		}
+		myFirstSegment = buffer.getLong();
+		myNextId = buffer.getLong();
+		int games = buffer.getInt();
+		Difficulty[] difficulties = Difficulty.values();
+		for(int i=0; i<games; i++)
+		{
+			long id = buffer.getLong();
+			int rows = buffer.getInt();
+			int cols = buffer.getInt();
+			int winLength = buffer.getInt();
+			Difficulty difficulty = difficulties[buffer.get()];
+			boolean computerFirst = buffer.get() != 0;
+			SavedGame game = new SavedGame(id, rows, cols, winLength, difficulty, computerFirst);
+			int moves = buffer.getInt();
+			for(int ply=0; ply<moves; ply++)
+			{
+				game.addMove(buffer.get() & 0xFF);
+			}
+			myGames.put(id, game);
+		}
+	}
+
+	/**
+	* Method to read the next record of a segment, checking its checksum
+	* @param input of the segment & array to read into
+	* @return truth value of a whole, correct record being read
+	* @author madisongipson */
+	private boolean readRecord(DataInputStream input, byte[] record) throws IOException
+	{
+		try
+		{
+			input.readFully(record);
+		}
+		catch(EOFException exception)
+		{
+			return false;
+		}
+		myChecksum.reset();
+		myChecksum.update(record, 0, RECORD_BYTES-4);
+		return ByteBuffer.wrap(record).getInt(RECORD_BYTES-4) == (int)myChecksum.getValue();
+	}
+
+	/**
+	* Method to apply one record to the games in progress
+	* @param record to apply
+	* @author madisongipson */
+	private void replay(ByteBuffer record)
+	{
+		long id = record.getLong(0);
+		byte type = record.get(8);
+		if(type == NEW_GAME)
+		{
+			Difficulty difficulty = Difficulty.values()[record.get(9)];
+			myGames.put(id, new SavedGame(id, record.getInt(12), record.getInt(16), record.getInt(20), difficulty, record.get(10) != 0));
+			myNextId = Math.max(myNextId, id+1);
+		}
+		else if(type == MOVE && myGames.containsKey(id))
+		{
+			myGames.get(id).addMove(record.getInt(12));
+		}
+		else if(type == END_GAME)
+		{
+			myGames.remove(id);
+		}
+	}
+
+	/**
+	* Method to journal a new game
+	* @param board size, difficulty & who moves first
+	* @return id of the game
+	* @author madisongipson */
+	public long newGame(int rows, int cols, int winLength, Difficulty difficulty, boolean computerFirst)
+	{
+		long id = myNextId++;
+		myGames.put(id, new SavedGame(id, rows, cols, winLength, difficulty, computerFirst));
+		append(id, NEW_GAME, difficulty.ordinal(), computerFirst? 1 : 0, rows, cols, winLength);
+		return id;
+	}
+
+	/**
+	* Method to journal a move of a game in progress
+	* @param id of the game & column played
+	* @author madisongipson */
+	public void move(long id, int col)
+	{
+		SavedGame game = myGames.get(id);
+		if(game != null && game.addMove(col))
+		{
+			append(id, MOVE, 0, 0, col, 0, 0);
+		}
+	}
+
+	/**
+	* Method to journal that a game is over or given up, so it is no longer kept
+	* @param id of the game
+	* @author madisongipson */
+	public void endGame(long id)
+	{
+		if(myGames.remove(id) != null)
+		{
+			append(id, END_GAME, 0, 0, 0, 0, 0);
+		}
+	}
+
+	/**
+	* Method to add a record to the buffer the commit thread drains, & take a snapshot
+	* when the journal has grown past the limit
+	* @param game id, record type & its fields
+	* @author madisongipson */
+	private void append(long id, byte type, int difficulty, int flag, int first, int second, int third)
+	{
+		synchronized(this)
+		{
+			if(myIsFailed)
+			{
+				return;
+			}
+			if(myFilling.remaining() < RECORD_BYTES)
+			{
+				ByteBuffer bigger = ByteBuffer.allocate(myFilling.capacity()*2);
+				myFilling.flip();
+				bigger.put(myFilling);
+				myFilling = bigger;
+			}
+			int start = myFilling.position();
+			myFilling.putLong(id).put(type).put((byte)difficulty).put((byte)flag).put((byte)0)
+					.putInt(first).putInt(second).putInt(third);
+			myChecksum.reset();
+			myChecksum.update(myFilling.array(), start, RECORD_BYTES-4);
+			myFilling.putInt((int)myChecksum.getValue());
+			myAppended += RECORD_BYTES;
+			notifyAll();
+		}
+		myBytesSinceSnapshot += RECORD_BYTES;
+		if(myBytesSinceSnapshot >= mySnapshotBytes && !isSnapshotPending())
+		{
+			byte[] snapshot = writeSnapshot(myFillSegment+1); //only this thread changes the games, so no lock is needed
+			myFillSegment++;
+			myBytesSinceSnapshot = 0;
+			synchronized(this)
+			{
+				mySnapshot = snapshot;
+				mySnapshotSegment = myFillSegment;
+				myRotatePosition = myAppended;
+				myIsSnapshotPending = true;
+				notifyAll();
+			}
+		}
+	}
+
+	private synchronized boolean isSnapshotPending()
+	{
+		return myIsSnapshotPending;
+	}
+
+	/**
+	* Method to write the games in progress in snapshot form
+	* @param first segment to replay after the snapshot
+	* @return bytes of the snapshot
+	* @author madisongipson */
+	private byte[] writeSnapshot(long firstSegment)
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + myGames.size()*48);
+		try(DataOutputStream output = new DataOutputStream(bytes))
+		{
+			output.writeInt(SNAPSHOT_MAGIC);
+			output.writeInt(SNAPSHOT_VERSION);
+			output.writeLong(firstSegment);
+			output.writeLong(myNextId);
+			output.writeInt(myGames.size());
+			for(SavedGame game : myGames.values())
+			{
+				output.writeLong(game.getId());
+				output.writeInt(game.getNumRows());
+				output.writeInt(game.getNumColumns());
+				output.writeInt(game.getWinLength());
+				output.writeByte(game.getDifficulty().ordinal());
+				output.writeByte(game.isComputerFirst()? 1 : 0);
+				output.writeInt(game.getNumMoves());
+				for(int ply=0; ply<game.getNumMoves(); ply++)
+				{
+					output.writeByte(game.getMoves()[ply]);
+				}
+			}
+			myChecksum.reset();
+			myChecksum.update(bytes.toByteArray());
+			output.writeInt((int)myChecksum.getValue());
+		}
+		catch(IOException exception)
+		{
+			throw new IllegalStateException("Could not write a snapshot in memory", exception);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	* Method the commit thread runs: take everything appended, write it, sync it, and
+	* report it safe; then do the same with whatever was appended meanwhile
+	* @author madisongipson */
+	private void commitLoop()
+	{
+		while(true)
+		{
+			long start;
+			int length;
+			byte[] snapshot;
+			long snapshotSegment;
+			long rotatePosition;
+			synchronized(this)
+			{
+				while(myFilling.position() == 0 && mySnapshot == null && !myIsClosed)
+				{
+					try
+					{
+						wait();
+					}
+					catch(InterruptedException exception)
+					{
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+				if(myFilling.position() == 0 && mySnapshot == null)
+				{
+					return; //closed with nothing left to write
+				}
+				ByteBuffer filled = myFilling;
+				myFilling = myDraining;
+				myDraining = filled;
+				start = myCommitted;
+				length = myDraining.position();
+				snapshot = mySnapshot;
+				snapshotSegment = mySnapshotSegment;
+				rotatePosition = myRotatePosition;
+				mySnapshot = null;
+			}
+			try
+			{
+				myDraining.flip();
+				if(snapshot != null)
+				{
+					myDraining.limit((int)(rotatePosition-start));
+					writeFully(myDraining);
+					mySegment.force(false);
+					mySegment.close();
+					mySegment = openSegment(snapshotSegment);
+					myDraining.limit(length);
+				}
+				writeFully(myDraining);
+				mySegment.force(false);
+				myDraining.clear();
+				if(snapshot != null)
+				{
+					saveSnapshot(snapshot);
+					for(long segment=myFirstSegment; segment<snapshotSegment; segment++)
+					{
+						Files.deleteIfExists(getSegmentFile(segment).toPath());
+					}
+					myFirstSegment = snapshotSegment;
+				}
+				synchronized(this)
+				{
+					myCommitted = start + length;
+					if(snapshot != null)
+					{
+						myIsSnapshotPending = false;
+					}
+				}
+			}
+			catch(IOException exception)
+			{
+				LOGGER.log(Level.SEVERE, "Game journal can't be written, games are no longer saved", exception);
+				synchronized(this)
+				{
+					myIsFailed = true;
+				}
+			}
+			if(myCommitListener != null)
+			{
+				myCommitListener.run();
+			}
+			synchronized(this)
+			{
+				if(myIsFailed)
+				{
+					return;
+				}
+			}
+		}
+	}
+
+	private void writeFully(ByteBuffer buffer) throws IOException
+	{
+		while(buffer.hasRemaining())
+		{
+			mySegment.write(buffer);
+		}
+	}
+
+	/**
+	* Method to replace the snapshot, syncing the new one before it takes the old one's name
+	* @param bytes of the snapshot
+	* @author madisongipson */
+	private void saveSnapshot(byte[] snapshot) throws IOException
+	{
+		File temporary = new File(myDirectory, SNAPSHOT_NAME+".tmp");
+		try(FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+			while(buffer.hasRemaining())
+			{
+				channel.write(buffer);
+			}
+			channel.force(true);
+		}
+		Files.move(temporary.toPath(), new File(myDirectory, SNAPSHOT_NAME).toPath(), StandardCopyOption.ATOMIC_MOVE);
+		try(FileChannel directory = FileChannel.open(myDirectory.toPath(), StandardOpenOption.READ))
+		{
+			directory.force(true); //makes the rename itself safe
+		}
+		catch(IOException exception)
+		{
+			LOGGER.log(Level.FINE, "Directories can't be synced here", exception);
+		}
+	}
+
+	private FileChannel openSegment(long segment) throws IOException
+	{
+		return FileChannel.open(getSegmentFile(segment).toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	private File getSegmentFile(long segment)
+	{
+		return new File(myDirectory, SEGMENT_PREFIX+segment);
+	}
+
+	private File getBadFile(long segment)
+	{
+		return new File(myDirectory, SEGMENT_PREFIX+segment+".bad");
+	}
+
+	/**
+	* Method to read a segment's number from its file name
+	* @param file in the journal directory
+	* @return number of the segment, -1 if the file isn't one
+	* @author madisongipson */
+	private static long getSegmentNumber(File file)
+	{
+		String name = file.getName();
+		if(!name.startsWith(SEGMENT_PREFIX))
+		{
+			return -1;
+		}
+		try
+		{
+			return Long.parseLong(name.substring(SEGMENT_PREFIX.length()));
+		}
+		catch(NumberFormatException exception)
+		{
+			return -1;
+		}
+	}
+
+	/**
+	* Method to write & sync everything appended & stop the commit thread
+	* @author madisongipson */
+	public void close() throws IOException
+	{
+		synchronized(this)
+		{
+			myIsClosed = true;
+			notifyAll();
+		}
+		try
+		{
+			myCommitThread.join();
+		}
+		catch(InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+		mySegment.close();
+	}
+
+	/**
+	* Method to set what to run on the commit thread each time records are made safe
+	* @param listener to run, such as one waking the thread waiting on the commits
+	* @author madisongipson */
+	public void setCommitListener(Runnable listener)
+	{
+		myCommitListener = listener;
+	}
+
+	/**
+	* Method to get how far the journal has been appended to, to wait for it to be committed
+	* @return bytes appended since the journal was opened
+	* @author madisongipson */
+	public synchronized long getAppended()
+	{
+		return myAppended;
+	}
+
+	/**
+	* Method to get how far the journal is safe on disk
+	* @return bytes written & synced since the journal was opened
+	* @author madisongipson */
+	public synchronized long getCommitted()
+	{
+		return myCommitted;
+	}
+
+	/**
+	* Method to check if writing the journal failed, after which nothing more is saved
+	* @return truth value of the journal having failed
+	* @author madisongipson */
+	public synchronized boolean isFailed()
+	{
+		return myIsFailed;
+	}
+
+	public SavedGame getGame(long id)
+	{
+		return myGames.get(id);
+	}
+
+	public Collection<SavedGame> getGames()
+	{
+		return myGames.values();
+	}
+
+	public int getNumGames()
+	{
+		return myGames.size();
+	}
+}
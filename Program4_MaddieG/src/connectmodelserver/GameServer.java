@@ -0,0 +1,753 @@
+package connectmodelserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import connectmodel.Difficulty;
+import connectmodel.GameBoard;
+import connectmodel.GameSession;
+import connectmodel.PieceType;
+import connectmodel.Strategy;
+
+/**
+ * @purpose GameServer hosts thousands of games of a player against the computer in one
+ * JVM, with no user interface. One event loop thread owns every connection & game: it
+ * accepts clients, reads their lines & writes the replies through a NIO Selector, so
+ * a game costs no thread of its own while it waits for its player. Computer moves are
+ * searched on a bounded pool of compute threads, on a copy of the board; the result
+ * comes back to the event loop through a queue. When every compute thread is busy &
+ * the queue is full, the computer answers with a greedy move on the event loop
+ * instead, which takes microseconds, so one slow search never holds up other games.
+ * Each compute thread keeps its own strategy per difficulty, so a game holds no
+ * transposition table of its own.
+ * With a GameJournal, every game in progress is saved as it is played and the replies
+ * about a move wait until the journal has it on disk, so after a crash or restart a
+ * client can RESUME its game where it left off. A client that disconnects without
+ * QUIT can RESUME its game too.
+ *
+ * The protocol is one ASCII line per request & reply. Requests:
+ * NEW [rows cols winLength] [difficulty]   start a game, 6 7 4 and the server's difficulty by default,
+ *                                          at most MAX_ROWS by MAX_COLUMNS & MAX_SPOTS spots
+ * MOVE col                                 place the player's piece, columns count from 0
+ * STATE                                    show the game
+ * RESUME id                                carry on with a saved game, ending the one in progress
+ * QUIT                                     end the game & close the connection
+ * Replies:
+ * GAME rows cols winLength difficulty you|computer id   a game started or resumed, who moved first & its id
+ * TURN                                     it is the player's move
+ * PLAYED col                               the computer placed a piece
+ * WIN you|computer, DRAW                   the game is over
+ * STATE status you|computer|- moves col... the game, with every column played in order
+ * ERR message                              the request was not done
+ * BYE                                      the connection is closing
+ * @author madisongipson
+ *
+ * @input Port, compute threads, compute queue length, default difficulty and journal directory (all optional).
+ * @output Games played over the protocol.
+ */
+
+public class GameServer implements Runnable
+{
+	public static final int DEFAULT_PORT = 4004;
+	public static final int DEFAULT_ROWS = 6;
+	public static final int DEFAULT_COLUMNS = 7;
+	public static final int DEFAULT_WIN_LENGTH = 4;
+	public static final int MAX_ROWS = 64;
+	public static final int MAX_COLUMNS = 64;
+	public static final int MAX_SPOTS = 1024; //bounds a board's memory & a search's work
+	public static final int MAX_LINE_BYTES = 256;
+	public static final int MAX_PENDING_BYTES = 64*1024; //a client that stops reading is dropped
+	private static final PieceType PLAYER_TYPE = PieceType.RED;
+	private static final PieceType COMPUTER_TYPE = PieceType.BLACK;
+	private static final Logger LOGGER = Logger.getLogger(GameServer.class.getName());
+
+	private ServerSocketChannel myServerChannel;
+	private Selector mySelector;
+	private ThreadPoolExecutor myComputePool;
+	private ConcurrentLinkedQueue<Runnable> myCompletions; //computer moves for the event loop to place
+	private ThreadLocal<Strategy[]> myStrategies; //per compute thread, indexed by difficulty
+	private Difficulty myDifficulty;
+	private GameJournal myJournal; //null when games aren't saved
+	private HashMap<Long, ClientConnection> myAttached; //saved games by id, to the client playing them
+	private ArrayDeque<SelectionKey> myAwaitingCommit; //clients whose replies wait on the journal
+	private long myNextGameId; //used when games aren't saved
+	private volatile boolean myIsRunning;
+	private int myNumConnections;
+	private long myNumGames;
+	private long myNumGreedyMoves;
+
+	/**
+	* @param address to listen on, port 0 for any free port
+	* @param computeThreads threads searching computer moves
+	* @param queueLength computer moves that may wait for a compute thread
+	* @param difficulty level games start at unless NEW gives one
+	*/
+	public GameServer(InetSocketAddress address, int computeThreads, int queueLength, Difficulty difficulty) throws IOException
+	{
+		this(address, computeThreads, queueLength, difficulty, null);
+	}
+
+	/**
+	* @param address to listen on, port 0 for any free port
+	* @param computeThreads threads searching computer moves
+	* @param queueLength computer moves that may wait for a compute thread
+	* @param difficulty level games start at unless NEW gives one
+	* @param journal to save games in, holding the games recovered from it; null to not save games
+	*/
+	public GameServer(InetSocketAddress address, int computeThreads, int queueLength, Difficulty difficulty, GameJournal journal) throws IOException
+	{
+		if(computeThreads < 1 || queueLength < 1)
+		{
+			throw new IllegalArgumentException("Need at least one compute thread & room in its queue");
+		}
+		myDifficulty = difficulty;
+		myJournal = journal;
+		myAttached = new HashMap<Long, ClientConnection>();
+		myAwaitingCommit = new ArrayDeque<SelectionKey>();
+		mySelector = Selector.open();
+		myServerChannel = ServerSocketChannel.open();
+		myServerChannel.configureBlocking(false);
+		myServerChannel.bind(address, 1024);
+		myServerChannel.register(mySelector, SelectionKey.OP_ACCEPT);
+		myCompletions = new ConcurrentLinkedQueue<Runnable>();
+		myStrategies = ThreadLocal.withInitial(() -> new Strategy[Difficulty.values().length]);
+		AtomicInteger threadNumber = new AtomicInteger();
+		myComputePool = new ThreadPoolExecutor(computeThreads, computeThreads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueLength), runnable -> {
+					Thread thread = new Thread(runnable, "compute-"+threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+		if(myJournal != null)
+		{
+			myJournal.setCommitListener(() -> {
+				myCompletions.add(this::releaseCommitted);
+				mySelector.wakeup();
+			});
+		}
+		myIsRunning = true;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		int port = args.length > 0? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int threads = args.length > 1? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int queueLength = args.length > 2? Integer.parseInt(args[2]) : 64*threads;
+		Difficulty difficulty = args.length > 3? Difficulty.valueOf(args[3].toUpperCase(Locale.ROOT)) : Difficulty.MEDIUM;
+		GameJournal journal = args.length > 4? new GameJournal(new File(args[4]), GameJournal.DEFAULT_SNAPSHOT_BYTES) : null;
+
+		GameServer server = new GameServer(new InetSocketAddress(port), threads, queueLength, difficulty, journal);
+		System.out.println("Serving games on port "+server.getPort()+" with "+threads+" compute threads"+
+				(journal != null? ", "+journal.getNumGames()+" saved games to resume" : ""));
+		server.run();
+		if(journal != null)
+		{
+			journal.close();
+		}
+	}
+
+	/**
+	* Method to run the event loop until shutdown() is called
+	* @author madisongipson */
+	public void run()
+	{
+		try
+		{
+			while(myIsRunning)
+			{
+				mySelector.select();
+				Runnable completion;
+				while((completion = myCompletions.poll()) != null)
+				{
+					try
+					{
+						completion.run();
+					}
+					catch(RuntimeException exception)
+					{
+						LOGGER.log(Level.WARNING, "Finishing a computer move failed", exception);
+					}
+				}
+				Iterator<SelectionKey> keys = mySelector.selectedKeys().iterator();
+				while(keys.hasNext())
+				{
+					SelectionKey key = keys.next();
+					keys.remove();
+					try
+					{
+						if(key.isValid() && key.isAcceptable())
+						{
+							accept();
+						}
+						if(key.isValid() && key.isReadable())
+						{
+							read(key);
+						}
+						if(key.isValid() && key.isWritable())
+						{
+							write(key);
+						}
+					}
+					catch(IOException exception)
+					{
+						close(key); //the client went away
+					}
+				}
+			}
+		}
+		catch(IOException exception)
+		{
+			LOGGER.log(Level.SEVERE, "Game server stopped", exception);
+		}
+		finally
+		{
+			closeAll();
+		}
+	}
+
+	/**
+	* Method to stop the event loop & compute threads; safe to call from another thread
+	* @author madisongipson */
+	public void shutdown()
+	{
+		myIsRunning = false;
+		mySelector.wakeup();
+	}
+
+	private void accept() throws IOException
+	{
+		SocketChannel channel;
+		while((channel = myServerChannel.accept()) != null)
+		{
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true); //replies are single short lines
+			channel.register(mySelector, SelectionKey.OP_READ, new ClientConnection(channel, MAX_LINE_BYTES, myDifficulty));
+			myNumConnections++;
+		}
+	}
+
+	/**
+	* Method to read what a client sent & answer every complete line
+	* @param key of the client's channel
+	* @author madisongipson */
+	private void read(SelectionKey key) throws IOException
+	{
+		ClientConnection connection = (ClientConnection)key.attachment();
+		if(connection.getChannel().read(connection.getInput()) < 0)
+		{
+			close(key);
+			return;
+		}
+		String line;
+		while(!connection.isClosing() && (line = connection.nextLine()) != null)
+		{
+			handleLine(connection, line.trim());
+		}
+		if(connection.isInputFull())
+		{
+			connection.queue("ERR line longer than "+MAX_LINE_BYTES+" bytes");
+			connection.closeAfterWrite();
+		}
+		flush(key);
+	}
+
+	/**
+	* Method to write as much of a client's waiting replies as the socket takes
+	* @param key of the client's channel
+	* @author madisongipson */
+	private void write(SelectionKey key) throws IOException
+	{
+		ClientConnection connection = (ClientConnection)key.attachment();
+		connection.getOutput().flip();
+		connection.getChannel().write(connection.getOutput());
+		connection.getOutput().compact();
+		if(connection.getPendingBytes() == 0)
+		{
+			if(connection.isClosing())
+			{
+				close(key);
+				return;
+			}
+			key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+
+	/**
+	* Method to start writing a client's replies, dropping clients that stopped reading.
+	* Replies about records the journal hasn't committed yet wait until it has
+	* @param key of the client's channel
+	* @author madisongipson */
+	private void flush(SelectionKey key) throws IOException
+	{
+		ClientConnection connection = (ClientConnection)key.attachment();
+		if(connection.getPendingBytes() > MAX_PENDING_BYTES)
+		{
+			close(key);
+		}
+		else if(myJournal != null && !myJournal.isFailed() && connection.getCommitPosition() > myJournal.getCommitted())
+		{
+			if(!connection.isAwaitingCommit())
+			{
+				connection.setAwaitingCommit(true);
+				myAwaitingCommit.add(key);
+			}
+		}
+		else if(connection.getPendingBytes() > 0 && key.isValid())
+		{
+			key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			write(key);
+		}
+	}
+
+	/**
+	* Method to write the replies that were waiting on the journal, now that it has
+	* committed more; runs on the event loop after each commit
+	* @author madisongipson */
+	private void releaseCommitted()
+	{
+		int waiting = myAwaitingCommit.size();
+		for(int i=0; i<waiting; i++)
+		{
+			SelectionKey key = myAwaitingCommit.poll();
+			((ClientConnection)key.attachment()).setAwaitingCommit(false);
+			try
+			{
+				flush(key); //waits again if its records are in the next commit
+			}
+			catch(IOException exception)
+			{
+				close(key);
+			}
+		}
+	}
+
+	/**
+	* Method to carry out one request
+	* @param connection of the client & the request line
+	* @author madisongipson */
+	private void handleLine(ClientConnection connection, String line)
+	{
+		String[] words = line.split("\\s+");
+		String command = words[0].toUpperCase(Locale.ROOT);
+		try
+		{
+			switch(command)
+			{
+				case "NEW":
+					newGame(connection, words);
+					break;
+				case "MOVE":
+					playerMove(connection, words);
+					break;
+				case "STATE":
+					connection.queue(describe(connection));
+					break;
+				case "RESUME":
+					resumeGame(connection, words);
+					break;
+				case "QUIT":
+					endGame(connection);
+					connection.queue("BYE");
+					connection.closeAfterWrite();
+					break;
+				case "":
+					break;
+				default:
+					connection.queue("ERR unknown command "+words[0]);
+			}
+		}
+		catch(IllegalArgumentException exception) //covers bad numbers too
+		{
+			connection.queue("ERR "+exception.getMessage());
+		}
+		catch(RuntimeException exception) //one bad request must not stop the event loop
+		{
+			LOGGER.log(Level.WARNING, "Request \""+line+"\" failed", exception);
+			connection.queue("ERR request failed");
+		}
+	}
+
+	/**
+	* Method to start a game, keeping the session when the size is the same so the
+	* player who starts alternates like it does in the window
+	* @param connection of the client & the request's words
+	* @author madisongipson */
+	private void newGame(ClientConnection connection, String[] words)
+	{
+		if(words.length != 1 && words.length != 2 && words.length != 4 && words.length != 5)
+		{
+			throw new IllegalArgumentException("use NEW [rows cols winLength] [difficulty]");
+		}
+		int rows = DEFAULT_ROWS;
+		int cols = DEFAULT_COLUMNS;
+		int winLength = DEFAULT_WIN_LENGTH;
+		if(words.length >= 4)
+		{
+			rows = Integer.parseInt(words[1]);
+			cols = Integer.parseInt(words[2]);
+			winLength = Integer.parseInt(words[3]);
+			if(rows > MAX_ROWS || cols > MAX_COLUMNS || rows*cols > MAX_SPOTS)
+			{
+				throw new IllegalArgumentException("boards are at most "+MAX_ROWS+" rows, "+MAX_COLUMNS+" columns & "+MAX_SPOTS+" spots");
+			}
+			GameBoard.checkSize(rows, cols, winLength);
+		}
+		if(words.length == 2 || words.length == 5)
+		{
+			connection.setDifficulty(Difficulty.valueOf(words[words.length-1].toUpperCase(Locale.ROOT)));
+		}
+		GameSession session = connection.getSession();
+		GameBoard board = session == null? null : session.getGameBoard();
+		if(board == null || board.getNumRows() != rows || board.getNumColumns() != cols || board.getWinLength() != winLength)
+		{
+			session = new GameSession("Player", PLAYER_TYPE, COMPUTER_TYPE, rows, cols, winLength);
+		}
+		endGame(connection);
+		connection.setSession(session);
+		session.startGame();
+		myNumGames++;
+		long id = myNextGameId++;
+		if(myJournal != null)
+		{
+			id = myJournal.newGame(rows, cols, winLength, connection.getDifficulty(), session.isComputerFirst());
+			connection.setCommitPosition(myJournal.getAppended());
+			myAttached.put(id, connection);
+		}
+		connection.setGameId(id);
+		connection.queue(describeGame(connection));
+		nextTurn(connection);
+	}
+
+	/**
+	* Method to carry on with a saved game, taking it from any other client playing it
+	* @param connection of the client & the request's words
+	* @author madisongipson */
+	private void resumeGame(ClientConnection connection, String[] words)
+	{
+		if(words.length != 2)
+		{
+			throw new IllegalArgumentException("use RESUME id");
+		}
+		long id = Long.parseLong(words[1]);
+		SavedGame game = myJournal == null? null : myJournal.getGame(id);
+		if(game == null)
+		{
+			connection.queue("ERR no saved game "+id);
+			return;
+		}
+		ClientConnection other = myAttached.remove(id);
+		if(other != null)
+		{
+			other.setSession(null); //drops its computer move too
+			other.setGameId(-1);
+		}
+		endGame(connection);
+		GameSession session = new GameSession("Player", PLAYER_TYPE, COMPUTER_TYPE, game.getNumRows(), game.getNumColumns(), game.getWinLength());
+		if(!session.resumeGame(game.isComputerFirst(), game.getMoves(), game.getNumMoves()))
+		{
+			myJournal.endGame(id);
+			connection.setCommitPosition(myJournal.getAppended());
+			connection.queue("ERR saved game "+id+" can't be replayed");
+			return;
+		}
+		connection.setDifficulty(game.getDifficulty());
+		connection.setSession(session);
+		connection.setGameId(id);
+		myAttached.put(id, connection);
+		connection.queue(describeGame(connection));
+		connection.queue(describe(connection));
+		nextTurn(connection);
+	}
+
+	/**
+	* Method to end the client's game in the journal, if it is still in progress
+	* @param connection of the client
+	* @author madisongipson */
+	private void endGame(ClientConnection connection)
+	{
+		if(myJournal != null && connection.getGameId() >= 0 && myAttached.get(connection.getGameId()) == connection)
+		{
+			myAttached.remove(connection.getGameId());
+			myJournal.endGame(connection.getGameId());
+			connection.setCommitPosition(myJournal.getAppended());
+		}
+	}
+
+	/**
+	* Method to journal a move of the client's game
+	* @param connection of the client & column played
+	* @author madisongipson */
+	private void journalMove(ClientConnection connection, int col)
+	{
+		if(myJournal != null)
+		{
+			myJournal.move(connection.getGameId(), col);
+			connection.setCommitPosition(myJournal.getAppended());
+		}
+	}
+
+	/**
+	* Method to place the player's piece & hand the turn on
+	* @param connection of the client & the request's words
+	* @author madisongipson */
+	private void playerMove(ClientConnection connection, String[] words)
+	{
+		GameSession session = connection.getSession();
+		if(words.length != 2)
+		{
+			throw new IllegalArgumentException("use MOVE col");
+		}
+		int col = Integer.parseInt(words[1]);
+		if(session == null || session.getStatus() != GameSession.Status.IN_PROGRESS)
+		{
+			connection.queue("ERR no game in progress");
+		}
+		else if(connection.isThinking() || session.isComputerUp())
+		{
+			connection.queue("ERR not your turn");
+		}
+		else if(!session.applyMove(col))
+		{
+			connection.queue("ERR column "+col+" can't be played");
+		}
+		else
+		{
+			journalMove(connection, col);
+			nextTurn(connection);
+		}
+	}
+
+	/**
+	* Method to report the end of a game, or start the computer's move, or tell the
+	* player it is their turn
+	* @param connection of the client
+	* @author madisongipson */
+	private void nextTurn(ClientConnection connection)
+	{
+		GameSession session = connection.getSession();
+		if(session.getStatus() == GameSession.Status.WIN)
+		{
+			endGame(connection);
+			connection.queue(session.getWinner() == session.getComputerPlayer()? "WIN computer" : "WIN you");
+		}
+		else if(session.getStatus() == GameSession.Status.DRAW)
+		{
+			endGame(connection);
+			connection.queue("DRAW");
+		}
+		else if(session.isComputerUp())
+		{
+			startComputerMove(connection);
+		}
+		else
+		{
+			connection.queue("TURN");
+		}
+	}
+
+	/**
+	* Method to search the computer's move on the compute pool, on a copy of the board.
+	* If the pool is full, a greedy move is played right away instead
+	* @param connection of the client
+	* @author madisongipson */
+	private void startComputerMove(ClientConnection connection)
+	{
+		GameSession session = connection.getSession();
+		GameBoard board = new GameBoard(session.getGameBoard());
+		Difficulty difficulty = connection.getDifficulty();
+		int game = connection.getGameNumber();
+		connection.setThinking(true);
+		try
+		{
+			myComputePool.execute(() -> {
+				int col = -1;
+				try
+				{
+					col = getStrategy(difficulty).chooseColumn(board, COMPUTER_TYPE);
+				}
+				catch(RuntimeException exception)
+				{
+					LOGGER.log(Level.WARNING, "Computer move failed, playing greedy instead", exception);
+				}
+				int move = col;
+				myCompletions.add(() -> finishComputerMove(connection, game, move));
+				mySelector.wakeup();
+			});
+		}
+		catch(RejectedExecutionException exception)
+		{
+			myNumGreedyMoves++;
+			finishComputerMove(connection, game, -1);
+		}
+	}
+
+	/**
+	* Method to place the computer's move on the event loop thread, unless the game it
+	* was searched for is over or the client left
+	* @param connection of the client, number of the game & column, -1 for a greedy move
+	* @author madisongipson */
+	private void finishComputerMove(ClientConnection connection, int game, int col)
+	{
+		SelectionKey key = connection.getChannel().keyFor(mySelector);
+		if(key == null || !key.isValid() || game != connection.getGameNumber() || !connection.isThinking())
+		{
+			return;
+		}
+		connection.setThinking(false);
+		GameSession session = connection.getSession();
+		if(col < 0 || !session.applyMove(col))
+		{
+			col = session.getGameBoard().findBestMoveColumn(COMPUTER_TYPE);
+			session.applyMove(col);
+		}
+		journalMove(connection, col);
+		connection.queue("PLAYED "+col);
+		nextTurn(connection);
+		try
+		{
+			flush(key);
+		}
+		catch(IOException exception)
+		{
+			close(key);
+		}
+	}
+
+	/**
+	* Method to get the calling compute thread's strategy for a difficulty, creating it
+	* the first time
+	* @param difficulty
+	* @return strategy only this thread uses
+	* @author madisongipson */
+	private Strategy getStrategy(Difficulty difficulty)
+	{
+		Strategy[] strategies = myStrategies.get();
+		if(strategies[difficulty.ordinal()] == null)
+		{
+			strategies[difficulty.ordinal()] = difficulty.createStrategy();
+		}
+		return strategies[difficulty.ordinal()];
+	}
+
+	/**
+	* Method to describe a client's game for GAME
+	* @param connection of the client
+	* @return GAME reply line
+	* @author madisongipson */
+	private String describeGame(ClientConnection connection)
+	{
+		GameSession session = connection.getSession();
+		GameBoard board = session.getGameBoard();
+		return "GAME "+board.getNumRows()+" "+board.getNumColumns()+" "+board.getWinLength()+" "+
+				connection.getDifficulty().name().toLowerCase(Locale.ROOT)+" "+(session.isComputerFirst()? "computer" : "you")+
+				" "+connection.getGameId();
+	}
+
+	/**
+	* Method to describe a client's game for STATE
+	* @param connection of the client
+	* @return STATE reply line
+	* @author madisongipson */
+	private String describe(ClientConnection connection)
+	{
+		GameSession session = connection.getSession();
+		if(session == null)
+		{
+			return "STATE NOT_STARTED - 0";
+		}
+		GameBoard board = session.getGameBoard();
+		String up = session.getStatus() != GameSession.Status.IN_PROGRESS? "-" : session.isComputerUp()? "computer" : "you";
+		StringBuilder state = new StringBuilder("STATE ").append(session.getStatus()).append(' ').append(up)
+				.append(' ').append(board.getNumMoves());
+		for(int ply=0; ply<board.getNumMoves(); ply++)
+		{
+			state.append(' ').append(board.getMoveColumn(ply));
+		}
+		return state.toString();
+	}
+
+	private void close(SelectionKey key)
+	{
+		if(!key.isValid())
+		{
+			return; //already closed
+		}
+		key.cancel();
+		try
+		{
+			key.channel().close();
+		}
+		catch(IOException exception)
+		{
+			LOGGER.log(Level.FINE, "Closing a client failed", exception);
+		}
+		if(key.attachment() != null)
+		{
+			ClientConnection connection = (ClientConnection)key.attachment();
+			myAttached.remove(connection.getGameId(), connection); //the game stays saved to resume
+			myNumConnections--;
+		}
+	}
+
+	private void closeAll()
+	{
+		for(SelectionKey key : mySelector.keys())
+		{
+			close(key);
+		}
+		try
+		{
+			mySelector.close();
+		}
+		catch(IOException exception)
+		{
+			LOGGER.log(Level.FINE, "Closing the selector failed", exception);
+		}
+		myComputePool.shutdownNow();
+	}
+
+	/**
+	* Method to get the port the server listens on, such as the one picked for port 0
+	* @return port
+	* @author madisongipson */
+	public int getPort()
+	{
+		return myServerChannel.socket().getLocalPort();
+	}
+
+	public int getNumConnections()
+	{
+		return myNumConnections;
+	}
+
+	public long getNumGames()
+	{
+		return myNumGames;
+	}
+
+	/**
+	* Method to count the computer moves played greedily because the compute pool was full
+	* @return greedy moves
+	* @author madisongipson */
+	public long getNumGreedyMoves()
+	{
+		return myNumGreedyMoves;
+	}
+}
@@ -0,0 +1,95 @@
+package connectmodelserver;
+
+import connectmodel.Difficulty;
+
+/**
+ * @purpose SavedGame is what GameJournal keeps of a game in progress: enough to set the
+ * game up again after a restart, which is its size, level, who moved first & the
+ * columns played in order.
+ * @author madisongipson
+ *
+ * @input Game id, board size, difficulty, who starts, then the columns played.
+ * @output The same, for resuming the game.
+ */
+
+public class SavedGame
+{
+	private long myId;
+	private int myNumRows;
+	private int myNumColumns;
+	private int myWinLength;
+	private Difficulty myDifficulty;
+	private boolean myIsComputerFirst;
+	private int[] myMoves;
+	private int myNumMoves;
+
+	public SavedGame(long id, int rows, int cols, int winLength, Difficulty difficulty, boolean computerFirst)
+	{
+		myId = id;
+		myNumRows = rows;
+		myNumColumns = cols;
+		myWinLength = winLength;
+		myDifficulty = difficulty;
+		myIsComputerFirst = computerFirst;
+		myMoves = new int[rows*cols];
+	}
+
+	/**
+	* Method to add the next column played
+	* @param column of the move
+	* @return success of adding it, false once every spot has been played
+	* @author madisongipson */
+	public boolean addMove(int col)
+	{
+		if(myNumMoves == myMoves.length)
+		{
+			return false;
+		}
+		myMoves[myNumMoves++] = col;
+		return true;
+	}
+
+	public long getId()
+	{
+		return myId;
+	}
+
+	public int getNumRows()
+	{
+		return myNumRows;
+	}
+
+	public int getNumColumns()
+	{
+		return myNumColumns;
+	}
+
+	public int getWinLength()
+	{
+		return myWinLength;
+	}
+
+	public Difficulty getDifficulty()
+	{
+		return myDifficulty;
+	}
+
+	public boolean isComputerFirst()
+	{
+		return myIsComputerFirst;
+	}
+
+	/**
+	* Method to get the columns played; only the first getNumMoves() are moves
+	* @return columns in the order played
+	* @author madisongipson */
+	public int[] getMoves()
+	{
+		return myMoves;
+	}
+
+	public int getNumMoves()
+	{
+		return myNumMoves;
+	}
+}
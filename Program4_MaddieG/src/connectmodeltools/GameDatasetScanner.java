@@ -0,0 +1,319 @@
+package connectmodeltools;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import connectmodel.GameBoard;
+import connectmodel.GameRecordReader;
+import connectmodel.PieceType;
+
+/**
+ * @purpose GameDatasetScanner replays every game of a game record file through a
+ * GameBoard to gather statistics: how often the player moving first wins, overall and
+ * by the column they open in, how long games last, which direction wins are made in,
+ * and how often each column is played. The file's blocks are split across the threads
+ * of a ForkJoinPool; each piece of work makes one board, cursor & tally and reuses them
+ * for all of its games, so replaying a game allocates nothing.
+ * @author madisongipson
+ *
+ * @input Game record file and threads (both optional).
+ * @output Summary of the statistics and games/min.
+ */
+
+public class GameDatasetScanner
+{
+	private static final int LEAF_BLOCKS = 4; //thousands of games, plenty to pay for a board & cursor
+
+	private GameRecordReader myReader;
+	private ForkJoinPool myPool;
+
+	public GameDatasetScanner(GameRecordReader reader, int threads)
+	{
+		myReader = reader;
+		myPool = new ForkJoinPool(threads);
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		String fileName = args.length > 0? args[0] : "selfplay.games";
+		int threads = args.length > 1? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		GameRecordReader reader = new GameRecordReader(fileName);
+		GameDatasetScanner scanner = new GameDatasetScanner(reader, threads);
+		long start = System.nanoTime();
+		Statistics statistics = scanner.scan();
+		double seconds = (System.nanoTime()-start)/1e9;
+		scanner.shutdown();
+
+		long games = statistics.getNumGames();
+		System.out.printf("%d games of %dx%d, win length %d, on %d threads in %.2f s (%.0f games/min)%n", games,
+				reader.getNumRows(), reader.getNumColumns(), reader.getWinLength(), threads, seconds, games/seconds*60);
+		System.out.printf("first player wins %.1f%%, second player wins %.1f%%, draws %.1f%%, unfinished %.1f%%%n",
+				percent(statistics.getFirstPlayerWins(), games), percent(statistics.getSecondPlayerWins(), games),
+				percent(statistics.getDraws(), games), percent(statistics.getUnfinished(), games));
+		System.out.printf("%.1f moves per game%n", games > 0? (double)statistics.getTotalMoves()/games : 0);
+		long wins = statistics.getFirstPlayerWins() + statistics.getSecondPlayerWins();
+		System.out.printf("wins horizontal %.1f%%, vertical %.1f%%, diagonal %.1f%%%n",
+				percent(statistics.getHorizontalWins(), wins), percent(statistics.getVerticalWins(), wins),
+				percent(statistics.getDiagonalWins(), wins));
+		if(statistics.getNumBadGames() > 0)
+		{
+			System.out.println(statistics.getNumBadGames()+" games could not be replayed or end differently than recorded");
+		}
+		System.out.println("column\tplayed\topened\tfirst player wins after opening");
+		for(int col=0; col<reader.getNumColumns(); col++)
+		{
+			System.out.printf("%d\t%.1f%%\t%.1f%%\t%.1f%%%n", col, percent(statistics.getColumnMoves(col), statistics.getTotalMoves()),
+					percent(statistics.getOpenings(col), games), percent(statistics.getOpeningWins(col), statistics.getOpenings(col)));
+		}
+	}
+
+	private static double percent(long count, long total)
+	{
+		return total > 0? 100.0*count/total : 0;
+	}
+
+	/**
+	* Method to replay every game of the file across the pool's threads
+	* @return statistics of every game
+	* @author madisongipson */
+	public Statistics scan()
+	{
+		return myPool.invoke(new Scan(0, myReader.getNumBlocks()));
+	}
+
+	public void shutdown()
+	{
+		myPool.shutdown();
+	}
+
+	/**
+	 * Replays the games of a range of blocks, splitting the range in half until it is
+	 * small enough for one thread.
+	 */
+	@SuppressWarnings("serial")
+	private class Scan extends RecursiveTask<Statistics>
+	{
+		private int myFirstBlock;
+		private int myEndBlock;
+
+		public Scan(int firstBlock, int endBlock)
+		{
+			myFirstBlock = firstBlock;
+			myEndBlock = endBlock;
+		}
+
+		protected Statistics compute()
+		{
+			if(myEndBlock - myFirstBlock > LEAF_BLOCKS)
+			{
+				int middle = (myFirstBlock + myEndBlock) >>> 1;
+				Scan second = new Scan(middle, myEndBlock);
+				second.fork();
+				Statistics statistics = new Scan(myFirstBlock, middle).compute();
+				statistics.add(second.join());
+				return statistics;
+			}
+			int cols = myReader.getNumColumns();
+			Statistics statistics = new Statistics(cols);
+			GameBoard board = new GameBoard(myReader.getNumRows(), cols, myReader.getWinLength(),
+					new PieceType[] {myReader.getType(0), myReader.getType(1)});
+			GameRecordReader.Cursor cursor = myReader.newCursor();
+			cursor.seek(myFirstBlock, myEndBlock);
+			while(cursor.next())
+			{
+				statistics.count(cursor, board);
+			}
+			return statistics;
+		}
+	}
+
+	/**
+	 * Tallies of a set of games, added together as the pieces of a scan finish.
+	 */
+	public static class Statistics
+	{
+		private long myNumGames;
+		private long myFirstPlayerWins;
+		private long mySecondPlayerWins;
+		private long myDraws;
+		private long myUnfinished;
+		private long myTotalMoves;
+		private long myHorizontalWins;
+		private long myVerticalWins;
+		private long myDiagonalWins;
+		private long myNumBadGames;
+		private long[] myColumnMoves;
+		private long[] myOpenings; //games whose first move was in each column
+		private long[] myOpeningWins; //of those, games the player moving first won
+
+		public Statistics(int cols)
+		{
+			myColumnMoves = new long[cols];
+			myOpenings = new long[cols];
+			myOpeningWins = new long[cols];
+		}
+
+		/**
+		* Method to replay the cursor's game on a board & tally it
+		* @param cursor on the game & board of the file's size & piece types
+		* @author madisongipson */
+		private void count(GameRecordReader.Cursor cursor, GameBoard board)
+		{
+			int moves = cursor.getNumMoves();
+			int result = cursor.getResult();
+			if(!cursor.replay(board) || (result < GameRecordReader.DRAW) != board.checkIfWin()
+					|| (moves > 0 && result < GameRecordReader.DRAW && board.getMoveSlot(moves-1) != result))
+			{
+				myNumBadGames++;
+				return;
+			}
+			myNumGames++;
+			myTotalMoves += moves;
+			for(int ply=0; ply<moves; ply++)
+			{
+				myColumnMoves[cursor.getMove(ply)]++;
+			}
+			boolean isFirstPlayerWin = result == cursor.getStartSlot();
+			if(result == GameRecordReader.DRAW)
+			{
+				myDraws++;
+			}
+			else if(result == GameRecordReader.UNFINISHED)
+			{
+				myUnfinished++;
+			}
+			else
+			{
+				if(isFirstPlayerWin)
+				{
+					myFirstPlayerWins++;
+				}
+				else
+				{
+					mySecondPlayerWins++;
+				}
+				if(board.checkHorizontalWin())
+				{
+					myHorizontalWins++;
+				}
+				else if(board.checkVerticalWin())
+				{
+					myVerticalWins++;
+				}
+				else if(board.checkDiagonalWin())
+				{
+					myDiagonalWins++;
+				}
+			}
+			if(moves > 0)
+			{
+				int opening = cursor.getMove(0);
+				myOpenings[opening]++;
+				if(isFirstPlayerWin)
+				{
+					myOpeningWins[opening]++;
+				}
+			}
+		}
+
+		/**
+		* Method to add another set of games' tallies to these
+		* @param statistics of the other games
+		* @author madisongipson */
+		public void add(Statistics other)
+		{
+			myNumGames += other.myNumGames;
+			myFirstPlayerWins += other.myFirstPlayerWins;
+			mySecondPlayerWins += other.mySecondPlayerWins;
+			myDraws += other.myDraws;
+			myUnfinished += other.myUnfinished;
+			myTotalMoves += other.myTotalMoves;
+			myHorizontalWins += other.myHorizontalWins;
+			myVerticalWins += other.myVerticalWins;
+			myDiagonalWins += other.myDiagonalWins;
+			myNumBadGames += other.myNumBadGames;
+			for(int col=0; col<myColumnMoves.length; col++)
+			{
+				myColumnMoves[col] += other.myColumnMoves[col];
+				myOpenings[col] += other.myOpenings[col];
+				myOpeningWins[col] += other.myOpeningWins[col];
+			}
+		}
+
+		/**
+		* Method to get the number of games tallied, not counting bad games
+		* @return games tallied
+		* @author madisongipson */
+		public long getNumGames()
+		{
+			return myNumGames;
+		}
+
+		public long getFirstPlayerWins()
+		{
+			return myFirstPlayerWins;
+		}
+
+		public long getSecondPlayerWins()
+		{
+			return mySecondPlayerWins;
+		}
+
+		public long getDraws()
+		{
+			return myDraws;
+		}
+
+		public long getUnfinished()
+		{
+			return myUnfinished;
+		}
+
+		public long getTotalMoves()
+		{
+			return myTotalMoves;
+		}
+
+		public long getHorizontalWins()
+		{
+			return myHorizontalWins;
+		}
+
+		public long getVerticalWins()
+		{
+			return myVerticalWins;
+		}
+
+		public long getDiagonalWins()
+		{
+			return myDiagonalWins;
+		}
+
+		/**
+		* Method to get the number of games left out of the tallies because they could not
+		* be replayed or their last move doesn't give the recorded result
+		* @return games left out
+		* @author madisongipson */
+		public long getNumBadGames()
+		{
+			return myNumBadGames;
+		}
+
+		public long getColumnMoves(int col)
+		{
+			return myColumnMoves[col];
+		}
+
+		public long getOpenings(int col)
+		{
+			return myOpenings[col];
+		}
+
+		public long getOpeningWins(int col)
+		{
+			return myOpeningWins[col];
+		}
+	}
+}
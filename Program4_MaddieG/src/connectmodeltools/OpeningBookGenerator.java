@@ -0,0 +1,149 @@
+package connectmodeltools;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import connectmodel.GameBoard;
+import connectmodel.NegamaxStrategy;
+import connectmodel.OpeningBook;
+import connectmodel.PieceType;
+import connectmodel.Solver;
+import connectmodel.Strategy;
+import connectmodel.TranspositionTable;
+
+/**
+ * @purpose OpeningBookGenerator searches every position reachable in the first few
+ * moves, with either player starting, and writes the best column for each one to an
+ * opening book file that OpeningBook can map. A search depth of 0 has the Solver
+ * prove every column instead, for a book of perfect moves; the earliest positions take
+ * the longest to solve.
+ * @author madisongipson
+ *
+ * @input Book file name, plies to cover, search depth (0 to solve), rows, columns and win length (all optional).
+ * @output Book file of sorted position key & best column records.
+ */
+
+public class OpeningBookGenerator
+{
+	private GameBoard myGameBoard;
+	private Strategy mySearch;
+	private int myPlies;
+	private Set<Long> mySeen;
+	private long[] myRecords;
+	private int myNumRecords;
+
+	public OpeningBookGenerator(int rows, int cols, int winLength, int plies, int depth)
+	{
+		myGameBoard = new GameBoard(rows, cols, winLength, new PieceType[] {PieceType.RED, PieceType.BLACK});
+		if(depth > 0)
+		{
+			mySearch = new NegamaxStrategy(depth, 0, new TranspositionTable(64));
+		}
+		else if(Solver.isSupported(myGameBoard))
+		{
+			mySearch = new Solver();
+		}
+		else
+		{
+			throw new IllegalArgumentException("The solver only works on boards that fit in a bitboard with a win length of "+Solver.WIN_LENGTH);
+		}
+		myPlies = plies;
+		mySeen = new HashSet<Long>();
+		myRecords = new long[1024];
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		String fileName = args.length > 0? args[0] : OpeningBook.DEFAULT_FILE_NAME;
+		int plies = args.length > 1? Integer.parseInt(args[1]) : 6;
+		int depth = args.length > 2? Integer.parseInt(args[2]) : 14;
+		int rows = args.length > 3? Integer.parseInt(args[3]) : 6;
+		int cols = args.length > 4? Integer.parseInt(args[4]) : 7;
+		int winLength = args.length > 5? Integer.parseInt(args[5]) : 4;
+
+		long start = System.nanoTime();
+		OpeningBookGenerator generator = new OpeningBookGenerator(rows, cols, winLength, plies, depth);
+		generator.generate();
+		generator.write(fileName);
+		System.out.printf("%d positions up to %d plies written to %s in %.1f s%n",
+				generator.myNumRecords, plies, fileName, (System.nanoTime()-start)/1e9);
+	}
+
+	/**
+	* Method to search every position up to the book's plies, with either player starting
+	* @author madisongipson */
+	public void generate()
+	{
+		myGameBoard.resetBoard();
+		for(int slot=0; slot<myGameBoard.getTypes().size(); slot++)
+		{
+			addPositions(slot);
+		}
+		Arrays.sort(myRecords, 0, myNumRecords);
+	}
+
+	/**
+	* Method to add the current position & every position after it, up to the book's plies
+	* @param slot of the player moving
+	* @author madisongipson */
+	private void addPositions(int slot)
+	{
+		GameBoard board = myGameBoard;
+		long key = NegamaxStrategy.getTableKey(board, slot);
+		if(board.isBoardFull() || !mySeen.add(key))
+		{
+			return;
+		}
+		int best = mySearch.chooseColumn(board, board.getTypes().get(slot));
+		if(myNumRecords == myRecords.length)
+		{
+			myRecords = Arrays.copyOf(myRecords, myNumRecords*2);
+		}
+		myRecords[myNumRecords++] = (key & OpeningBook.KEY_MASK) | best;
+		if(myNumRecords % 1000 == 0)
+		{
+			System.out.println(myNumRecords+" positions searched");
+		}
+		if(board.getNumMoves() == myPlies)
+		{
+			return;
+		}
+		for(int col=0; col<board.getNumColumns(); col++)
+		{
+			if(!board.isColumnFull(col) && !board.isWinningMove(col, slot)) //won games need no book
+			{
+				board.makeMove(col, slot);
+				addPositions(board.getOpponentSlot(slot));
+				board.unmakeMove(col, slot);
+			}
+		}
+	}
+
+	/**
+	* Method to write the header & sorted records to a book file
+	* @param fileName path of the book file
+	* @author madisongipson */
+	public void write(String fileName) throws IOException
+	{
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName))))
+		{
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeInt(OpeningBook.VERSION);
+			out.writeInt(myGameBoard.getNumRows());
+			out.writeInt(myGameBoard.getNumColumns());
+			out.writeInt(myGameBoard.getWinLength());
+			out.writeInt(myPlies);
+			out.writeInt(myNumRecords);
+			out.writeInt(0); //pads the header to OpeningBook.HEADER_BYTES
+			for(int i=0; i<myNumRecords; i++)
+			{
+				out.writeLong(myRecords[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package connectmodeltools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import connectmodel.GameBoard;
+import connectmodel.ParallelNegamaxStrategy;
+import connectmodel.PieceType;
+import connectmodel.TranspositionTable;
+
+/**
+ * @purpose SearchScaling measures how the parallel search speeds up with more threads,
+ * so analysis machines can be sized. For each thread count it searches the same
+ * positions to the same depth and prints time, nodes/sec & speedup over one thread.
+ * @author madisongipson
+ *
+ * @input Search depth, maximum thread count and table size in MB (all optional).
+ * @output Table of thread count, milliseconds, nodes/sec and speedup.
+ */
+
+public class SearchScaling
+{
+	private static final int[][] POSITIONS = {{}, {3, 3, 3, 3}, {3, 2, 4, 4, 2, 3, 1, 5}};
+
+	public static void main(String[] args)
+	{
+		int depth = args.length > 0? Integer.parseInt(args[0]) : 14;
+		int maxThreads = args.length > 1? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int megabytes = args.length > 2? Integer.parseInt(args[2]) : 64;
+		if(maxThreads < 1)
+		{
+			throw new IllegalArgumentException("Need at least one search thread");
+		}
+		PieceType[] types = {PieceType.RED, PieceType.BLACK};
+		GameBoard board = new GameBoard(6, 7, 4, types);
+		TranspositionTable table = new TranspositionTable(megabytes);
+
+		ParallelNegamaxStrategy warmup = new ParallelNegamaxStrategy(1, depth-2, 0, table);
+		for(int i=0; i<5; i++) //let the JIT compile the search before timing it
+		{
+			warmup.chooseColumn(board, types[0]);
+		}
+		warmup.shutdown();
+
+		System.out.println("depth "+depth+", "+POSITIONS.length+" positions, "+megabytes+" MB table");
+		System.out.println("threads\tms\tnodes/sec\tspeedup");
+		double baseMillis = 0;
+		for(int threads : getThreadCounts(maxThreads))
+		{
+			ParallelNegamaxStrategy search = new ParallelNegamaxStrategy(threads, depth, 0, table);
+			long nodes = 0;
+			long start = System.nanoTime();
+			for(int[] moves : POSITIONS)
+			{
+				board.resetBoard();
+				for(int i=0; i<moves.length; i++)
+				{
+					board.placePiece(moves[i], types[i%2]);
+				}
+				table.clear(); //every thread count starts cold
+				search.chooseColumn(board, types[moves.length%2]);
+				nodes += search.getNodes();
+			}
+			double millis = (System.nanoTime()-start)/1e6;
+			search.shutdown();
+			if(threads == 1)
+			{
+				baseMillis = millis;
+			}
+			System.out.printf("%d\t%.1f\t%.0f\t%.2f%n", threads, millis, nodes/(millis/1000), baseMillis/millis);
+		}
+	}
+
+	/**
+	* Method to list the thread counts to measure: the powers of two below the largest
+	* count, then the largest count itself
+	* @param largest thread count, at least 1
+	* @return thread counts in increasing order
+	* @author madisongipson */
+	private static int[] getThreadCounts(int maxThreads)
+	{
+		List<Integer> counts = new ArrayList<Integer>();
+		for(int threads=1; threads<maxThreads; threads*=2)
+		{
+			counts.add(threads);
+		}
+		counts.add(maxThreads);
+		int[] result = new int[counts.size()];
+		for(int i=0; i<result.length; i++)
+		{
+			result[i] = counts.get(i);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,207 @@
+package connectmodeltools;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import connectmodel.ComputerPlayer;
+import connectmodel.GameBoard;
+import connectmodel.GameRecordReader;
+import connectmodel.GameRecordWriter;
+import connectmodel.NegamaxStrategy;
+import connectmodel.PieceType;
+import connectmodel.TranspositionTable;
+
+/**
+ * @purpose SelfPlaySimulator plays ComputerPlayer against ComputerPlayer on every core
+ * to evaluate AI changes. Each thread sets up its board, players & output buffer once
+ * and reuses them through resetBoard(), so playing a game allocates nothing. The first
+ * few moves of every game are random so the games differ.
+ * Each thread encodes its games into its own block & hands full blocks to a
+ * GameRecordWriter, which appends them to a game record file.
+ * @author madisongipson
+ *
+ * @input Games, threads, output file, search depth, random opening moves, rows, columns and win length.
+ * @output Game records file and a summary of wins, draws & games/sec.
+ */
+
+public class SelfPlaySimulator
+{
+	public static final int DRAW = GameRecordReader.DRAW;
+	private static final int TABLE_MEGABYTES = 4;
+
+	private int myNumGames;
+	private int myNumThreads;
+	private int myDepth;
+	private int myRandomMoves;
+	private int myNumRows;
+	private int myNumColumns;
+	private int myWinLength;
+	private GameRecordWriter myWriter;
+	private AtomicInteger myNextGame;
+	private AtomicLong myTotalMoves;
+	private AtomicInteger[] myResults;
+
+	public SelfPlaySimulator(int games, int threads, int depth, int randomMoves, int rows, int cols, int winLength, GameRecordWriter writer)
+	{
+		myNumGames = games;
+		myNumThreads = threads;
+		myDepth = depth;
+		myRandomMoves = randomMoves;
+		myNumRows = rows;
+		myNumColumns = cols;
+		myWinLength = winLength;
+		myWriter = writer;
+		myNextGame = new AtomicInteger();
+		myTotalMoves = new AtomicLong();
+		myResults = new AtomicInteger[] {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		int games = args.length > 0? Integer.parseInt(args[0]) : 1000;
+		int threads = args.length > 1? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		String fileName = args.length > 2? args[2] : "selfplay.games";
+		int depth = args.length > 3? Integer.parseInt(args[3]) : 6;
+		int randomMoves = args.length > 4? Integer.parseInt(args[4]) : 4;
+		int rows = args.length > 5? Integer.parseInt(args[5]) : 6;
+		int cols = args.length > 6? Integer.parseInt(args[6]) : 7;
+		int winLength = args.length > 7? Integer.parseInt(args[7]) : 4;
+
+		try(GameRecordWriter writer = new GameRecordWriter(fileName, rows, cols, winLength, new PieceType[] {PieceType.RED, PieceType.BLACK}))
+		{
+			SelfPlaySimulator simulator = new SelfPlaySimulator(games, threads, depth, randomMoves, rows, cols, winLength, writer);
+			long start = System.nanoTime();
+			simulator.run();
+			double seconds = (System.nanoTime()-start)/1e9;
+			System.out.printf("%d games on %d threads in %.2f s (%.0f games/sec)%n", games, threads, seconds, games/seconds);
+			System.out.printf("first slot wins %d, second slot wins %d, draws %d, %.1f moves per game%n",
+					simulator.getWins(0), simulator.getWins(1), simulator.getDraws(),
+					(double)simulator.myTotalMoves.get()/games);
+		}
+	}
+
+	/**
+	* Method to play every game across the threads & wait for them to finish
+	* @author madisongipson */
+	public void run() throws InterruptedException
+	{
+		Thread[] threads = new Thread[myNumThreads];
+		for(int i=0; i<myNumThreads; i++)
+		{
+			threads[i] = new Thread(new Worker(i), "self-play-"+i);
+			threads[i].start();
+		}
+		for(Thread thread : threads)
+		{
+			thread.join();
+		}
+	}
+
+	/**
+	* Method to append a block of finished games to the record file
+	* @param buffer of encoded games, number of bytes & number of games to write
+	* @author madisongipson */
+	private void write(byte[] buffer, int length, int games)
+	{
+		try
+		{
+			myWriter.writeBlock(buffer, length, games);
+		}
+		catch(IOException exception)
+		{
+			throw new IllegalStateException("Could not write game records", exception);
+		}
+	}
+
+	public int getWins(int slot)
+	{
+		return myResults[slot].get();
+	}
+
+	public int getDraws()
+	{
+		return myResults[DRAW].get();
+	}
+
+	/**
+	 * Plays games on one thread with its own board, players & record buffer.
+	 */
+	private class Worker implements Runnable
+	{
+		private GameBoard myBoard;
+		private ComputerPlayer[] myPlayers;
+		private SplittableRandom myRandom;
+		private byte[] myBuffer;
+		private int myLength;
+		private int myBufferGames;
+
+		public Worker(int id)
+		{
+			PieceType[] types = {PieceType.RED, PieceType.BLACK};
+			myBoard = new GameBoard(myNumRows, myNumColumns, myWinLength, types);
+			myPlayers = new ComputerPlayer[types.length];
+			for(int slot=0; slot<types.length; slot++)
+			{
+				myPlayers[slot] = new ComputerPlayer("Computer"+slot, types[slot], myBoard);
+				myPlayers[slot].setStrategy(new NegamaxStrategy(myDepth, 0, new TranspositionTable(TABLE_MEGABYTES)));
+			}
+			myRandom = new SplittableRandom(id*0x9E3779B97F4A7C15L + 1);
+			myBuffer = new byte[myWriter.getBlockBytes()];
+		}
+
+		public void run()
+		{
+			for(int game=myNextGame.getAndIncrement(); game<myNumGames; game=myNextGame.getAndIncrement())
+			{
+				if(myLength + myWriter.getMaxRecordBytes() > myBuffer.length)
+				{
+					write(myBuffer, myLength, myBufferGames);
+					myLength = 0;
+					myBufferGames = 0;
+				}
+				playGame(game%2); //starting slot alternates
+			}
+			write(myBuffer, myLength, myBufferGames);
+		}
+
+		/**
+		* Method to play one game & add its record to the buffer
+		* @param slot of the player who moves first
+		* @author madisongipson */
+		private void playGame(int slot)
+		{
+			GameBoard board = myBoard;
+			board.resetBoard();
+			int result = DRAW;
+			while(!board.isBoardFull())
+			{
+				int col;
+				if(board.getNumMoves() < myRandomMoves)
+				{
+					do
+					{
+						col = myRandom.nextInt(myNumColumns);
+					}
+					while(board.isColumnFull(col));
+				}
+				else
+				{
+					col = myPlayers[slot].nextMove();
+				}
+				board.placePiece(col, myPlayers[slot].getPieceType());
+				if(board.checkIfWin())
+				{
+					result = slot;
+					break;
+				}
+				slot = board.getOpponentSlot(slot);
+			}
+			myLength = myWriter.encode(myBuffer, myLength, board, result);
+			myBufferGames++;
+			myResults[result].incrementAndGet();
+			myTotalMoves.addAndGet(board.getNumMoves());
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package connectmodeltools;
+
+import java.util.SplittableRandom;
+
+import connectmodel.GameBoard;
+import connectmodel.PieceType;
+
+/**
+ * @purpose WinDetectionCheck plays random games on many board shapes and checks the
+ * bitboard win detection against a plain scan of every line on the board: before each
+ * move it checks isWinningMove for every open column, and after it checkIfWin, hasWin &
+ * the win direction. The shapes include tall & narrow boards whose directions are 32 or
+ * more bits apart, where a shift by a multiple of them would wrap around the long.
+ * @author madisongipson
+ *
+ * @input Games per board shape (optional).
+ * @output Mismatches per board shape; exits with status 1 if there are any.
+ */
+
+public class WinDetectionCheck
+{
+	private static final int[][] SIZES = {{6, 7, 4}, {31, 2, 4}, {63, 1, 4}, {21, 2, 5}, {31, 2, 2}, {15, 4, 4}, {12, 4, 8},
+			{1, 32, 4}, {4, 12, 4}, {40, 3, 4}, {3, 40, 4}, {9, 9, 5}}; //rows, columns & win length
+	private static final PieceType[] TYPES = {PieceType.RED, PieceType.BLACK};
+	private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}}; //vertical, horizontal & both diagonals
+
+	public static void main(String[] args)
+	{
+		int games = args.length > 0? Integer.parseInt(args[0]) : 2000;
+		SplittableRandom random = new SplittableRandom(1);
+		long total = 0;
+		for(int[] size : SIZES)
+		{
+			GameBoard board = new GameBoard(size[0], size[1], size[2], TYPES);
+			long mismatches = 0;
+			for(int game=0; game<games; game++)
+			{
+				mismatches += playGame(board, random);
+			}
+			System.out.printf("%dx%d win %d: %d mismatches%n", size[0], size[1], size[2], mismatches);
+			total += mismatches;
+		}
+		if(total > 0)
+		{
+			System.exit(1);
+		}
+	}
+
+	/**
+	* Method to play one random game, checking the win detection before & after every move.
+	* Boards one row or column wide hold only the first piece type, which plays every move
+	* @param game board to play on & random numbers
+	* @return number of checks that disagree with the scan
+	* @author madisongipson */
+	private static long playGame(GameBoard board, SplittableRandom random)
+	{
+		board.resetBoard();
+		long mismatches = 0;
+		int numTypes = board.getTypes().size();
+		int slot = random.nextInt(numTypes);
+		while(!board.isBoardFull())
+		{
+			for(int col=0; col<board.getNumColumns(); col++)
+			{
+				if(!board.isColumnFull(col) && board.isWinningMove(col, slot) != wouldWin(board, col, slot))
+				{
+					mismatches++;
+				}
+			}
+			int col;
+			do
+			{
+				col = random.nextInt(board.getNumColumns());
+			}
+			while(board.isColumnFull(col));
+			board.placePiece(col, TYPES[slot]);
+			boolean win = hasRun(board, slot, -1, -1);
+			int other = numTypes-1-slot;
+			if(board.checkIfWin() != win || board.hasWin(slot) != win || board.hasWin(other) != hasRun(board, other, -1, -1))
+			{
+				mismatches++;
+			}
+			if(win)
+			{
+				int direction = board.checkVerticalWin()? 0 : board.checkHorizontalWin()? 1 : board.checkDiagonalWin()? 2 : -1;
+				if(direction < 0 || !hasRunInDirection(board, slot, direction))
+				{
+					mismatches++;
+				}
+				break;
+			}
+			slot = other;
+		}
+		return mismatches;
+	}
+
+	/**
+	* Method to check if dropping a piece into a column would make a run, by scanning
+	* @param game board, column that is not full & slot of piece type being placed
+	* @return truth value of the piece making a run of win length
+	* @author madisongipson */
+	private static boolean wouldWin(GameBoard board, int col, int slot)
+	{
+		int row = 0;
+		while(board.getPieceAt(col, row) != null)
+		{
+			row++;
+		}
+		return hasRun(board, slot, col, row);
+	}
+
+	/**
+	* Method to scan every line of the board for a run of win length
+	* @param game board, slot of piece type & a spot to count as the piece type's, -1 for none
+	* @return truth value of a run
+	* @author madisongipson */
+	private static boolean hasRun(GameBoard board, int slot, int extraCol, int extraRow)
+	{
+		for(int direction=0; direction<DIRECTIONS.length; direction++)
+		{
+			if(hasRun(board, slot, extraCol, extraRow, direction))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	* Method to check for a run in the direction the board reported, counting both
+	* diagonals as one direction like checkDiagonalWin
+	* @param game board, slot of piece type & direction index, 2 for either diagonal
+	* @return truth value of a run that way
+	* @author madisongipson */
+	private static boolean hasRunInDirection(GameBoard board, int slot, int direction)
+	{
+		if(direction == 2)
+		{
+			return hasRun(board, slot, -1, -1, 2) || hasRun(board, slot, -1, -1, 3);
+		}
+		return hasRun(board, slot, -1, -1, direction);
+	}
+
+	private static boolean hasRun(GameBoard board, int slot, int extraCol, int extraRow, int direction)
+	{
+		int dCol = DIRECTIONS[direction][0];
+		int dRow = DIRECTIONS[direction][1];
+		for(int col=0; col<board.getNumColumns(); col++)
+		{
+			for(int row=0; row<board.getNumRows(); row++)
+			{
+				int length = 0;
+				int c = col;
+				int r = row;
+				while(length < board.getWinLength() && c >= 0 && c < board.getNumColumns() && r >= 0 && r < board.getNumRows() &&
+						((c == extraCol && r == extraRow) || board.getPieceAt(c, r) == TYPES[slot]))
+				{
+					length++;
+					c += dCol;
+					r += dRow;
+				}
+				if(length == board.getWinLength())
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,184 @@
+package connectmodelview;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import javax.swing.JComponent;
+
+import connectmodel.GameBoard;
+import connectmodel.PieceType;
+import connectmodel.Spot;
+
+/**
+ * BoardPanel draws the whole board as one lightweight component,
+ * reading the pieces straight from the GameBoard. Swing double
+ * buffers it, and a placed piece or win highlight only repaints
+ * the cells it changed, so boards of any size stay one component.
+ * Each cell is copied from the SpriteCache, already drawn at the
+ * cell size, which follows the panel's size.
+ *
+ * @author madisongipson
+ */
+@SuppressWarnings("serial")
+public class BoardPanel extends JComponent
+{
+    //////////////////////
+    //    Properties    //
+    //////////////////////
+
+    private GameBoard myGameBoard;
+    private int myNumRows;
+    private int myNumColumns;
+    private boolean[][] myHighlights; //indexed by column then row
+    private SpriteCache mySprites;
+
+    ///////////////////////
+    //      Methods      //
+    ///////////////////////
+
+    /**
+     * BoardPanel constructor, sized to fit every cell
+     *
+     * <pre>
+     * pre:  rows, columns & cell size are positive
+     * post: the panel is empty until a game board is set
+     * </pre>
+     *
+     * @param rows, columns, pixel size of one cell to start
+     *        with & the cache of cell images
+     */
+    public BoardPanel(int rows, int cols, int cellSize, SpriteCache sprites)
+    {
+        myNumRows = rows;
+        myNumColumns = cols;
+        myHighlights = new boolean[cols][rows];
+        mySprites = sprites;
+        setOpaque(true);
+        setBackground(Color.white);
+        setDoubleBuffered(true);
+        setPreferredSize(new Dimension(cols*cellSize, rows*cellSize));
+        setSize(getPreferredSize());
+    }
+
+    /**
+     * Paints only the cells inside the area being repainted,
+     * top row first like the board is seen.
+     *
+     * @param g graphics to paint with
+     */
+    protected void paintComponent(Graphics g)
+    {
+        int cellSize = getCellSize();
+        Rectangle clip = g.getClipBounds();
+        if(clip == null)
+        {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground()); //edges the cells don't cover
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if(cellSize < 1)
+        {
+            return;
+        }
+        int firstCol = Math.max(0, clip.x/cellSize);
+        int lastCol = Math.min(myNumColumns-1, (clip.x+clip.width-1)/cellSize);
+        int firstRow = Math.max(0, myNumRows-1 - (clip.y+clip.height-1)/cellSize);
+        int lastRow = Math.min(myNumRows-1, myNumRows-1 - clip.y/cellSize);
+        for(int col=firstCol; col<=lastCol; col++)
+        {
+            for(int row=firstRow; row<=lastRow; row++)
+            {
+                PieceType type = myGameBoard == null? null : myGameBoard.getPieceAt(col, row);
+                g.drawImage(mySprites.getCell(type, myHighlights[col][row], cellSize, getGraphicsConfiguration()),
+                        col*cellSize, (myNumRows-1-row)*cellSize, null);
+            }
+        }
+    }
+
+    /**
+     * Repaints the cell at a spot, after a piece was placed there.
+     *
+     * @param column & row of the cell
+     */
+    public void repaintSpot(int col, int row)
+    {
+        repaint(getCellBounds(col, row));
+    }
+
+    /**
+     * Highlights the cells of a win & repaints only them.
+     *
+     * @param spots the cells to highlight
+     */
+    public void highlight(Spot... spots)
+    {
+        for(Spot spot : spots)
+        {
+            myHighlights[spot.getColumn()][spot.getRow()] = true;
+            repaintSpot(spot.getColumn(), spot.getRow());
+        }
+    }
+
+    /**
+     * Clears every highlight & repaints the whole board,
+     * as it does for a new game.
+     */
+    public void resetBoard()
+    {
+        for(boolean[] column : myHighlights)
+        {
+            Arrays.fill(column, false);
+        }
+        repaint();
+    }
+
+    /**
+     * Finds the column under an x position, like a click.
+     *
+     * @param x position in the panel
+     * @return column under it, -1 if it is off the board
+     */
+    public int getColumnAt(int x)
+    {
+        int cellSize = getCellSize();
+        if(cellSize < 1 || x < 0 || x >= myNumColumns*cellSize)
+        {
+            return -1;
+        }
+        return x/cellSize;
+    }
+
+    /**
+     * Finds the area a cell is painted in.
+     *
+     * @param column & row of the cell
+     * @return the cell's rectangle in the panel
+     */
+    public Rectangle getCellBounds(int col, int row)
+    {
+        int cellSize = getCellSize();
+        return new Rectangle(col*cellSize, (myNumRows-1-row)*cellSize, cellSize, cellSize);
+    }
+
+    //////////////////////////
+    //   Accessor Methods   //
+    //////////////////////////
+
+    public void setGameBoard(GameBoard gameboard)
+    {
+        myGameBoard = gameboard;
+        repaint();
+    }
+
+    /**
+     * @return pixel size of a cell, the largest square that
+     *         lets every cell fit in the panel
+     */
+    public int getCellSize()
+    {
+        return Math.min(getWidth()/myNumColumns, getHeight()/myNumRows);
+    }
+}
@@ -1,14 +1,14 @@
 package connectmodelview;
 /**
- * Button Listener invokes the appropriate method of 
- * another class when the button is pressed.
+ * Button Listener runs the command it was given
+ * when the button is pressed.
  *
  * @author madisongipson
  */
-import java.lang.reflect.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseAdapter;
-import java.lang.IllegalAccessException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class ButtonListener extends MouseAdapter
 {
@@ -16,75 +16,69 @@ public class ButtonListener extends MouseAdapter
     //     Properties       //
     //////////////////////////
     
-    private Object myController;
-    private Method myMethod;
-    private Object[] myArguments;
+    private static final Logger LOGGER = Logger.getLogger(ButtonListener.class.getName());
+    
+    private ControllerCommand myCommand;
+    private MouseEvent myLastEvent;
+    private long myLastQueueMillis;
+    private long myLastHandlerNanos;
     
     //////////////////////////
     //       Methods        //
     //////////////////////////
 
     /**
-     * Only constructor, giving the method that should be invoked
+     * Only constructor, giving the command that should be run
      * when the mouse is released over the button; has the 
      * responsibility of notifying controller when mouse released.
      *
      * <pre>
-     * pre:  controller and method passed in are valid
-     * post: myController and myMethod are set
+     * pre:  command passed in is valid
+     * post: myCommand is set
      * </pre>
      *
-     * @param controller the controller this listener has a
-     *        responsible to
-     * @param method the method to invoke when button is pushed
-     * @param args the array of objects that are the parameters
-     *        for the method that will be invoked by the controller
+     * @param command the command to run when button is pushed
      */
-    public ButtonListener(Object controller, Method method, Object[] args)
+    public ButtonListener(ControllerCommand command)
     {
-        myController = controller;
-        myMethod = method;
-        myArguments = args;
+        myCommand = command;
     }
 
     /**
-     * Invokes the appropriate method when the mouse
-     * button is released.
+     * Runs the command when the mouse button is released,
+     * recording how long the event waited in the queue and
+     * how long the command took.
      *
      * <pre>
-     * pre:  a valid MouseEvent has taken place, and the controller
-     *       and method this listener is responsible to and how, are
-     *       set to value values
-     * post: the associated method is invoked
+     * pre:  a valid MouseEvent has taken place, and the command
+     *       this listener is responsible for is set
+     * post: the command has run; if it failed, the failure has
+     *       been logged with its stack trace
      * </pre>
      *
      * @param event a mouse event
      */
     public void mouseReleased(MouseEvent event)
     {
-        Method method;
-        Object controller;
-        Object[] arguments;
-    
-        method = this.getMethod();
-        controller = this.getController();
-        arguments = this.getArguments();
-        
+        long start = System.nanoTime();
+        myLastQueueMillis = System.currentTimeMillis() - event.getWhen();
+        myLastEvent = event;
         try
         {
-            method.invoke(controller, arguments);
-        }
-        catch(InvocationTargetException exception)
-        {
-            System.out.println("InvocationTargetException");
+            myCommand.execute();
         }
-        catch(IllegalAccessException exception)
+        catch(RuntimeException exception)
         {
-            System.out.println("IllegalAccessException");
+            LOGGER.log(Level.SEVERE, "Command failed for " + event.paramString(), exception);
         }
-        catch(IllegalArgumentException exception)
+        finally
         {
-            System.out.println("IllegalArgumentException");
+            myLastHandlerNanos = System.nanoTime() - start;
+            if(LOGGER.isLoggable(Level.FINE))
+            {
+                LOGGER.fine("Input handled in " + myLastHandlerNanos/1000 + " us after waiting "
+                        + myLastQueueMillis + " ms");
+            }
         }
     }
   
@@ -92,33 +86,38 @@ public class ButtonListener extends MouseAdapter
     //   Accessor Methods   //
     //////////////////////////
 
-    protected Method getMethod()
-    {
-        return myMethod;
-    }
-
-    protected void setMethod(Method method)
+    protected ControllerCommand getCommand()
     {
-        myMethod = method;
+        return myCommand;
     }
 
-    protected Object getController()
+    protected void setCommand(ControllerCommand command)
     {
-        return myController;
+        myCommand = command;
     }
-      
-    protected void setController(Object controller)
+    
+    /**
+     * @return the last mouse release, so a command can
+     *         see where the click was
+     */
+    public MouseEvent getLastEvent()
     {
-        myController = controller;
+        return myLastEvent;
     }
     
-    protected Object[] getArguments()
+    /**
+     * @return milliseconds the last click waited before it was handled
+     */
+    public long getLastQueueMillis()
     {
-        return myArguments;
+        return myLastQueueMillis;
     }
     
-    protected void setArguments(Object[] arguments)
+    /**
+     * @return nanoseconds the last click's command took to run
+     */
+    public long getLastHandlerNanos()
     {
-        myArguments = arguments;
+        return myLastHandlerNanos;
     }
 }
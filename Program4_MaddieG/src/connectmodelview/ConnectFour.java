@@ -1,18 +1,31 @@
 package connectmodelview;
+
+import connectmodel.Difficulty;
+
 public class ConnectFour
 {
     // Properties
     private Controller myController;
     
     // Methods
+    // Rows, columns, win length & difficulty may be given, as in "9 7 5 easy" for an easy Connect-5 on 9x7
     public static void main(String[] args)
     {
-        new ConnectFour();
+        int rows = args.length > 0? Integer.parseInt(args[0]) : Controller.DEFAULT_ROWS;
+        int cols = args.length > 1? Integer.parseInt(args[1]) : Controller.DEFAULT_COLUMNS;
+        int winLength = args.length > 2? Integer.parseInt(args[2]) : Controller.DEFAULT_WIN_LENGTH;
+        Difficulty difficulty = args.length > 3? Difficulty.valueOf(args[3].toUpperCase()) : Controller.DEFAULT_DIFFICULTY;
+        new ConnectFour(rows, cols, winLength, difficulty);
     }
     
     public ConnectFour()
     {
-        setController(new Controller());
+        this(Controller.DEFAULT_ROWS, Controller.DEFAULT_COLUMNS, Controller.DEFAULT_WIN_LENGTH, Controller.DEFAULT_DIFFICULTY);
+    }
+    
+    public ConnectFour(int rows, int cols, int winLength, Difficulty difficulty)
+    {
+        setController(new Controller(rows, cols, winLength, difficulty));
     }
 
 	public void setController(Controller controller) 
@@ -1,17 +1,27 @@
 package connectmodelview;
 
 import java.awt.Component;
+import java.io.File;
+import java.io.IOException;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
 
-import java.awt.Point;
 
 import connectmodel.PieceType;
 import connectmodel.Player;
 import connectmodel.GameEngine;
 import connectmodel.GameBoard;
 import connectmodel.ComputerPlayer;
+import connectmodel.Difficulty;
+import connectmodel.OpeningBook;
+import connectmodel.Spot;
 import connectmodelview.View;
 
 /**
@@ -29,17 +39,47 @@ public class Controller
 	private Player myPlayer;
 	private ComputerPlayer myComputerPlayer;
 	private PieceType[] myPieces;
-    private int myNumRows = 6;
-    private int myNumColumns = 7;
-    private int myWinLength = 4;
+    public static final int DEFAULT_ROWS = 6;
+    public static final int DEFAULT_COLUMNS = 7;
+    public static final int DEFAULT_WIN_LENGTH = 4;
+    public static final Difficulty DEFAULT_DIFFICULTY = Difficulty.HARD;
+    private int myNumRows;
+    private int myNumColumns;
+    private int myWinLength;
+    private Difficulty myDifficulty;
     private String myName;
     private PieceType myPieceType;
     private PieceType computerPieceType;
     
+    private static final Logger LOGGER = Logger.getLogger(Controller.class.getName());
+    private ExecutorService myComputerExecutor; //one thread, so a cancelled search finishes before the next starts
+    private SwingWorker<Integer, Void> myComputerMove;
+    private boolean myIsThinking;
+    private int myGameNumber; //moves from an earlier game are dropped
+    
     /**
-	* Initializes and sets required components of game.
+	* Initializes and sets required components of a standard game.
 	* @author Madison Gipson */
 	public Controller(){
+		this(DEFAULT_ROWS, DEFAULT_COLUMNS, DEFAULT_WIN_LENGTH, DEFAULT_DIFFICULTY);
+	}
+	
+	/**
+	* Initializes and sets required components of a game on any size of board,
+	* with the computer playing at a difficulty level.
+	* The size is checked before the window opens.
+	* @author Madison Gipson */
+	public Controller(int rows, int cols, int winLength, Difficulty difficulty){
+		GameBoard.checkSize(rows, cols, winLength);
+		myNumRows = rows;
+		myNumColumns = cols;
+		myWinLength = winLength;
+		myDifficulty = difficulty;
+		myComputerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "computer-move");
+			thread.setDaemon(true);
+			return thread;
+		});
 		myView = new View(this);
 		myPieces = new PieceType[2]; 
 		setPieceTypes();
@@ -52,34 +92,36 @@ public class Controller
 	/**
 	* When "Start Game" button is pressed in View, this method starts the game by 
 	* making sure the starting player is the player that didn't start the last game.
+	* A move the computer is still thinking about is cancelled, since it belongs to the old game.
 	* If the starting player is the computer, it prompts the computer to make the first move.
 	* Update score labels to reflect stored scores of each player.
 	* @author Madison Gipson */
 	public void startGame()
 	{
-		Player lastStartingPlayer = myGameEngine.getStartingPlayer(); //starting player of last game
+		cancelComputerMove();
 		myView.resetBoard();
 		myGameEngine.startGame(); //resets gameboard, assigns starting player & player up
-		if(myGameEngine.getStartingPlayer().getName() == myComputerPlayer.getName()) 
+		myView.updateMessageField("Starting Player is: "+myGameEngine.getStartingPlayer().getName());
+		myView.updateScoreLabels(); //makes the score carry over game to game
+		if(myGameEngine.getStartingPlayer() == myComputerPlayer) 
 		{
 			placeComputerPiece();
-			myGameEngine.switchPlayerUp();
 		}
-		myView.updateMessageField("Starting Player is: "+myGameEngine.getStartingPlayer().getName());
-		myView.updateScoreLabels(); //makes the score carry over game to game
 	}
 		
 	/**
 	* When any column is pressed in View, this method places a piece by 
 	* locating the row associated with where the piece would "fall."
 	* It changes the image at the column and row to match the player's piece color.
-	* If it's a win, it figures out who the winner is, then updates the message and score.
-	* It highlights the win begin to end.
+	* Clicks are ignored while the computer is thinking or when the column is full.
+	* If it's not a win, the computer starts thinking about its move.
 	* @author Madison Gipson */
-    public void placePiece(Integer Col)
+    public void placePiece(int col)
     {
-    	int col = Col.intValue(); 
-    	myGameEngine.placePiece(col);
+    	if(myIsThinking || !myGameEngine.placePiece(col))
+    	{
+    		return;
+    	}
         int row = myGameBoard.getLastRow();
         myView.switchImage(col, row);
         myView.updateMessageField(myName+" placed piece in column " +col+". It's now Opponent's turn.");
@@ -87,63 +129,147 @@ public class Controller
     	{
         	myGameEngine.switchPlayerUp();
             placeComputerPiece();
-            myGameEngine.switchPlayerUp();
     	}
-      
-        Point secondWinPoint;
-		Point thirdWinPoint; 
-		
-        if(myGameBoard.checkIfWin() == true)
+        else
+        {
+        	showWin();
+        }
+    }
+    
+    /**
+	* Right after player places a piece, computer places a piece. This
+	* involves calling the next move method of the computer player, which 
+	* finds the best move. The search runs on the computer's own thread, on a copy
+	* of the board, so the window keeps painting while it thinks; the move is placed
+	* back on the event thread by finishComputerPiece.
+	* @author Madison Gipson */
+    public void placeComputerPiece()
+    {
+    	final int game = myGameNumber;
+    	final GameBoard board = new GameBoard(myGameBoard);
+    	final long ticket = myComputerPlayer.startThinking(); //a stop before the search starts still counts
+    	myIsThinking = true;
+    	myView.setThinking(true);
+    	myView.updateMessageField("Opponent is thinking...");
+    	myComputerMove = new SwingWorker<Integer, Void>()
     	{
-    		PieceType myWinType = myGameBoard.getPieceOnBoard(myGameBoard.getWinBegin());
-    		if(myWinType == myPlayer.getPieceType()) //if the player wins
-    		{
-    			myView.updateMessageField(myName+" won this game, shown by the highlighted pieces! "
-    					+ "Press 'Start Game' button to play again");
-    			myPlayer.incrementScore();
-    			myPlayer.getScore();
-    		}
-    		else //if the computer wins
-    		{
-    			myView.updateMessageField("Opponent won this game, shown by the highlighted pieces. "
-    					+ "Press 'Start Game' button to play again");
-    			myComputerPlayer.incrementScore();
-    			myComputerPlayer.getScore();
-    		}
-    		myView.updateScoreLabels();
-    		if(myGameBoard.checkHorizontalWin() == true)
-    		{
-    			secondWinPoint = new Point(myGameBoard.getWinEnd().x-2, myGameBoard.getWinEnd().y);
-    			thirdWinPoint = new Point(myGameBoard.getWinEnd().x-1, myGameBoard.getWinEnd().y);
-    		}
-    		else if(myGameBoard.checkVerticalWin() == true)
+    		protected Integer doInBackground()
     		{
-    			secondWinPoint = new Point(myGameBoard.getWinEnd().x, myGameBoard.getWinEnd().y-2);
-    			thirdWinPoint = new Point(myGameBoard.getWinEnd().x, myGameBoard.getWinEnd().y-1);
+    			return myComputerPlayer.nextMove(board, ticket);
     		}
-    		else
+    		
+    		protected void done()
     		{
-    			secondWinPoint = new Point(myGameBoard.getWinEnd().x-2, myGameBoard.getWinEnd().y-2);
-    			thirdWinPoint = new Point(myGameBoard.getWinEnd().x-1, myGameBoard.getWinEnd().y-1);
-    			
+    			if(isCancelled() || game != myGameNumber) //a new game started while thinking
+    			{
+    				return;
+    			}
+    			myIsThinking = false;
+    			myView.setThinking(false);
+    			try
+    			{
+    				finishComputerPiece(get());
+    			}
+    			catch(InterruptedException | ExecutionException exception)
+    			{
+    				LOGGER.log(Level.SEVERE, "Computer move failed", exception);
+    				myView.updateMessageField("Opponent could not move. Press 'Start Game' button to play again");
+    			}
     		}
-    		myView.highlightWin(myGameBoard.getWinBegin(), myGameBoard.getWinEnd(), secondWinPoint, thirdWinPoint); 
+    	};
+    	myComputerExecutor.execute(myComputerMove);
+    }
+    
+    /**
+	* When the "Undo" button is pressed in View, this method takes back the player's
+	* last piece & every piece after it, such as the computer's reply or a move it is
+	* still thinking about, so it is the player's turn again. A game that was won
+	* can't be taken back, since the win was already scored.
+	* @author Madison Gipson */
+    public void undoMove()
+    {
+    	int playerSlot = myGameBoard.getSlot(myPlayer.getPieceType());
+    	int ply = myGameBoard.getNumMoves()-1;
+    	while(ply > -1 && myGameBoard.getMoveSlot(ply) != playerSlot)
+    	{
+    		ply--;
+    	}
+    	if(ply < 0 || myGameBoard.checkIfWin())
+    	{
+    		return; //none of the player's pieces to take back, or the game is over
     	}
+    	cancelComputerMove();
+    	while(myGameBoard.getNumMoves() > ply)
+    	{
+    		myGameBoard.undoMove();
+    	}
+    	if(myGameEngine.getPlayerUp() != myPlayer)
+    	{
+    		myGameEngine.switchPlayerUp();
+    	}
+    	myView.resetBoard(); //repaints the pieces left
+    	myView.updateMessageField("Move taken back. It's "+myName+"'s turn");
     }
     
     /**
-	* Right after player places a piece, computer places a piece. This
-	* involves calling the next move method of the computer player, which 
-	* finds the best move. It switches the image at the column and row 
-	* to match the computer's piece color.
+	* Places the piece the computer chose & switches the image at the column and row 
+	* to match the computer's piece color. Then it's the player's turn, unless the computer won.
 	* @author Madison Gipson */
-    public void placeComputerPiece()
+    private void finishComputerPiece(int col)
     {
-    	int col = myComputerPlayer.nextMove();
-    	myGameEngine.placePiece(col);
+    	if(!myGameEngine.placePiece(col)) //only happens when the board is full
+    	{
+    		myGameEngine.switchPlayerUp();
+    		return;
+    	}
     	int row = myGameBoard.getLastRow();
         myView.switchImage(col, row);
         myView.updateMessageField("Opponent placed piece in column " +col+". It's now "+myName+"'s turn");
+        myGameEngine.switchPlayerUp();
+        if(myGameBoard.checkIfWin() == true)
+        {
+        	showWin();
+        }
+    }
+    
+    /**
+	* Stops the computer's search if one is running & makes sure its move is never placed.
+	* @author Madison Gipson */
+    private void cancelComputerMove()
+    {
+    	myGameNumber++;
+    	if(myComputerMove != null && !myComputerMove.isDone())
+    	{
+    		myComputerPlayer.stopThinking();
+    		myComputerMove.cancel(false);
+    	}
+    	myIsThinking = false;
+    	myView.setThinking(false);
+    }
+    
+    /**
+	* If it's a win, it figures out who the winner is, then updates the message and score.
+	* It highlights every piece of the win, however long the win length is.
+	* @author Madison Gipson */
+    private void showWin()
+    {
+		PieceType myWinType = myGameBoard.getPieceOnBoard(myGameBoard.getWinBegin());
+		if(myWinType == myPlayer.getPieceType()) //if the player wins
+		{
+			myView.updateMessageField(myName+" won this game, shown by the highlighted pieces! "
+					+ "Press 'Start Game' button to play again");
+			myPlayer.incrementScore();
+			myPlayer.getScore();
+		}
+		else //if the computer wins
+		{
+			myView.updateMessageField("Opponent won this game, shown by the highlighted pieces. "
+					+ "Press 'Start Game' button to play again");
+			myComputerPlayer.incrementScore();
+			myComputerPlayer.getScore();
+		}
+		myView.updateScoreLabels();
+		myView.highlightWin(myGameBoard.getWinSpots()); 
     }
     
     public int getMyNumColumns()
@@ -161,13 +287,28 @@ public class Controller
 		return myNumRows;
 	}
 	
+	public Difficulty getDifficulty()
+	{
+		return myDifficulty;
+	}
+	
+	/**
+	* Changes the computer's difficulty level, starting with its next move.
+	* @author Madison Gipson */
+	public void setDifficulty(Difficulty difficulty)
+	{
+		myDifficulty = difficulty;
+		myComputerPlayer.setDifficulty(difficulty);
+	}
+	
 	public void setGameBoard() {
 		myGameBoard = new GameBoard(myNumRows, myNumColumns, myWinLength, myPieces);
+		myView.setGameBoard(myGameBoard);
 	}
 	
 	public void setGameEngine()
 	{
-		myGameEngine = new GameEngine(myPlayer, myGameBoard);
+		myGameEngine = new GameEngine(myPlayer, myComputerPlayer, myGameBoard);
 	}
 	
 	public void setPieceTypes()
@@ -193,6 +334,18 @@ public class Controller
 	{
 		computerPieceType = myPieces[1];
 		myComputerPlayer = new ComputerPlayer("Opponent", computerPieceType, myGameBoard);
+		myComputerPlayer.setDifficulty(myDifficulty);
+		if(new File(OpeningBook.DEFAULT_FILE_NAME).isFile()) //book is optional, search covers everything
+		{
+			try
+			{
+				myComputerPlayer.setOpeningBook(new OpeningBook(OpeningBook.DEFAULT_FILE_NAME));
+			}
+			catch(IOException exception)
+			{
+				LOGGER.log(Level.WARNING, "Could not load the opening book "+OpeningBook.DEFAULT_FILE_NAME+", playing without it", exception);
+			}
+		}
 	}
 	
 	public String getMyPlayerName()
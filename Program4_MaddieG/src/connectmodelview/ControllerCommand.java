@@ -0,0 +1,22 @@
+package connectmodelview;
+/**
+ * A ControllerCommand is one action the view asks the controller
+ * to carry out, such as starting a game or placing a piece in a
+ * column. Listeners call it directly instead of looking the
+ * controller's method up by name.
+ *
+ * @author madisongipson
+ */
+@FunctionalInterface
+public interface ControllerCommand
+{
+    /**
+     * Carries out the action on the controller.
+     *
+     * <pre>
+     * pre:  the controller this command acts on has been set up
+     * post: the action has been carried out
+     * </pre>
+     */
+    public void execute();
+}
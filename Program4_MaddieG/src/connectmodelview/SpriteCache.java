@@ -0,0 +1,189 @@
+package connectmodelview;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+import connectmodel.PieceType;
+
+/**
+ * SpriteCache loads the piece images once, up front, and keeps
+ * every cell the board can show already drawn at the board's
+ * cell size. Painting a cell is then a single image copy; the
+ * cells are only drawn again when the cell size or screen changes.
+ *
+ * @author madisongipson
+ */
+public class SpriteCache
+{
+    //////////////////////
+    //    Properties    //
+    //////////////////////
+
+    public static final String IMAGE_FOLDER = "images/";
+    private static final Color BACKGROUND_COLOR = Color.white;
+    private static final Color HIGHLIGHT_COLOR = Color.BLUE;
+
+    private BufferedImage myBlankImage;
+    private BufferedImage[] myPieceImages; //indexed by PieceType ordinal
+
+    private int myCellSize;
+    private GraphicsConfiguration myConfig;
+    private BufferedImage myBlankCell;
+    private BufferedImage[][] myPieceCells; //indexed by PieceType ordinal, then 1 if highlighted
+
+    ///////////////////////
+    //      Methods      //
+    ///////////////////////
+
+    /**
+     * SpriteCache constructor, reading every image before
+     * the board is first shown
+     *
+     * <pre>
+     * pre:  the images are on the classpath under images/,
+     *       or in an images folder in the working directory
+     * post: every image is loaded
+     * </pre>
+     *
+     * @throws IllegalStateException if an image is missing or unreadable
+     */
+    public SpriteCache()
+    {
+        myBlankImage = loadImage("blank.jpg");
+        myPieceImages = new BufferedImage[PieceType.values().length];
+        for(PieceType type : PieceType.values())
+        {
+            myPieceImages[type.ordinal()] = loadImage(type.name().toLowerCase()+".png");
+        }
+        myPieceCells = new BufferedImage[myPieceImages.length][2];
+    }
+
+    /**
+     * Reads an image from the classpath, falling back to the
+     * working directory for runs that don't copy resources.
+     *
+     * @param fileName name of the image in the images folder
+     * @return the fully loaded image
+     */
+    private static BufferedImage loadImage(String fileName)
+    {
+        try(InputStream in = SpriteCache.class.getResourceAsStream("/"+IMAGE_FOLDER+fileName))
+        {
+            BufferedImage image = in != null? ImageIO.read(in) : ImageIO.read(new File(IMAGE_FOLDER+fileName));
+            if(image == null)
+            {
+                throw new IllegalStateException(fileName+" is not a readable image");
+            }
+            return image;
+        }
+        catch(IOException exception)
+        {
+            throw new IllegalStateException("Could not load "+IMAGE_FOLDER+fileName, exception);
+        }
+    }
+
+    /**
+     * Gets the finished image of one cell, drawing every cell
+     * again first if the cell size or screen changed.
+     *
+     * <pre>
+     * pre:  cell size is positive
+     * post: the cells are cached at this size & screen
+     * </pre>
+     *
+     * @param type piece in the cell, null if it is empty,
+     *        whether it is highlighted, cell size & the
+     *        configuration of the screen it is drawn on
+     *        (null when there is none)
+     * @return opaque image of the whole cell
+     */
+    public BufferedImage getCell(PieceType type, boolean highlighted, int cellSize, GraphicsConfiguration config)
+    {
+        if(cellSize != myCellSize || config != myConfig)
+        {
+            buildCells(cellSize, config);
+        }
+        if(type == null)
+        {
+            return myBlankCell;
+        }
+        return myPieceCells[type.ordinal()][highlighted? 1 : 0];
+    }
+
+    /**
+     * Draws every cell at a new size. Compatible images match
+     * the screen's pixel format, so copying them is fast.
+     *
+     * @param cellSize & screen configuration (may be null)
+     */
+    private void buildCells(int cellSize, GraphicsConfiguration config)
+    {
+        myCellSize = cellSize;
+        myConfig = config;
+        myBlankCell = createCell(config);
+        Graphics2D g = myBlankCell.createGraphics();
+        setQuality(g);
+        g.drawImage(myBlankImage, 0, 0, cellSize, cellSize, null);
+        g.dispose();
+        for(int i=0; i<myPieceImages.length; i++)
+        {
+            for(int highlighted=0; highlighted<2; highlighted++)
+            {
+                myPieceCells[i][highlighted] = createCell(config);
+                g = myPieceCells[i][highlighted].createGraphics();
+                setQuality(g);
+                g.setColor(highlighted == 1? HIGHLIGHT_COLOR : BACKGROUND_COLOR);
+                g.fillRect(0, 0, cellSize, cellSize);
+                drawPiece(g, myPieceImages[i], cellSize);
+                g.dispose();
+            }
+        }
+    }
+
+    /**
+     * Draws a piece centered in the cell, at its own size
+     * when it fits and scaled down when it doesn't.
+     *
+     * @param g cell graphics, piece image & cell size
+     */
+    private static void drawPiece(Graphics2D g, BufferedImage piece, int cellSize)
+    {
+        double scale = Math.min(1.0, (double)cellSize/Math.max(piece.getWidth(), piece.getHeight()));
+        int width = (int)Math.round(piece.getWidth()*scale);
+        int height = (int)Math.round(piece.getHeight()*scale);
+        g.drawImage(piece, (cellSize-width)/2, (cellSize-height)/2, width, height, null);
+    }
+
+    private static void setQuality(Graphics2D g)
+    {
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    }
+
+    private BufferedImage createCell(GraphicsConfiguration config)
+    {
+        if(config == null)
+        {
+            return new BufferedImage(myCellSize, myCellSize, BufferedImage.TYPE_INT_RGB);
+        }
+        return config.createCompatibleImage(myCellSize, myCellSize, Transparency.OPAQUE);
+    }
+
+    //////////////////////////
+    //   Accessor Methods   //
+    //////////////////////////
+
+    public int getCellSize()
+    {
+        return myCellSize;
+    }
+}
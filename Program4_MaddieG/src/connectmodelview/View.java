@@ -5,7 +5,6 @@ package connectmodelview;
  */
 
 import java.awt.*;
-import java.lang.reflect.*;
 
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -13,9 +12,11 @@ import javax.swing.JPanel;
 import javax.swing.JRadioButton;
 import javax.swing.JScrollPane;
 
+import connectmodel.GameBoard;
 import connectmodel.PieceType;
+import connectmodel.Spot;
 import connectmodelview.ButtonListener;
-import connectmodelview.Can;
+import connectmodelview.BoardPanel;
 
 @SuppressWarnings("serial")
 public class View 
@@ -24,9 +25,8 @@ public class View
     //    Properties    //
     //////////////////////
 	
-	private Can[][] myBoard;
-	private ButtonListener[] myColumnListener; //listens for the different columns
-	private Panel myBoardPanel;
+	private BoardPanel myBoardPanel;
+	private ButtonListener myBoardListener; //finds the column from where the board was clicked
 	
 	private Label myPlayerName;
 	private Label myPlayerColor;
@@ -42,8 +42,14 @@ public class View
 	private final static String newline = "\n";
 	private ButtonListener myStartGameListener;
 	private Button myStartGameButton;
+	private ButtonListener myUndoListener;
+	private Button myUndoButton;
 	private Panel myBottomPanel;
 	
+	private static final int BOARD_WIDTH = 525;
+	private static final int BOARD_HEIGHT = 450;
+	private static final int MAX_CELL_SIZE = 75;
+	
 	private int myWinLength;
 	private int myNumColumns;
 	private int myNumRows;
@@ -65,11 +71,7 @@ public class View
 	
 	private Controller myController;
 
-    private Image myBlankImage;
-    private Image myRedCircle;
-    private Image myBlackCircle;
-    private Image myGreenCircle;
-    private Image myYellowCircle;
+    private SpriteCache mySprites;
     
     ///////////////////////
     //      Methods      //
@@ -99,28 +101,11 @@ public class View
         frame.setBackground(Color.white);
         frame.setResizable(false);
         
-        myBlankImage = Toolkit.getDefaultToolkit().getImage("images/blank.jpg");
-        myRedCircle = Toolkit.getDefaultToolkit().getImage("images/red.png");
-        myBlackCircle = Toolkit.getDefaultToolkit().getImage("images/black.png");
-        myGreenCircle = Toolkit.getDefaultToolkit().getImage("images/green.png");
-        myYellowCircle = Toolkit.getDefaultToolkit().getImage("images/yellow.png");
-
-        myBoard = new Can[myNumRows][myNumColumns];     
-        myColumnListener = new ButtonListener[myNumColumns];
-        myBoardPanel = new Panel(new GridLayout(myNumRows, myNumColumns));
-        myBoardPanel.setSize(75*myNumRows, 75*myNumColumns); //450x525
-        myBoardPanel.setLocation(125, 50);
-        
-        //assigns a blank image to each spot in the board
-        for(int i=myNumRows-1; i > -1; i--)
-    	{
-        	for(int j=0; j < myNumColumns; j++) 
-        	{
-        		 myBoard[i][j] = new Can(myBlankImage);
-                 myBoardPanel.add(myBoard[i][j]);	
-        	}
-        } 
-         
+        mySprites = new SpriteCache(); //loads every image now, so the first paint isn't blank
+        //cells shrink so any board fits the 525x450 area the standard board fills
+        int cellSize = Math.min(MAX_CELL_SIZE, Math.min(BOARD_WIDTH/myNumColumns, BOARD_HEIGHT/myNumRows));
+        myBoardPanel = new BoardPanel(myNumRows, myNumColumns, cellSize, mySprites);
+        myBoardPanel.setLocation(125 + (BOARD_WIDTH-myBoardPanel.getWidth())/2, 50 + (BOARD_HEIGHT-myBoardPanel.getHeight())/2);
         
     	myPlayerName = new Label("Name: "+getMyName());
     	myPlayerColor = new Label("Color: "+ getMyPieceType());
@@ -150,11 +135,13 @@ public class View
                 JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
     	myMessageField.setEditable(false);
     	myStartGameButton = new Button("Start Game");
+    	myUndoButton = new Button("Undo");
     	
     	
     	myBottomPanel = new Panel(new FlowLayout());
     	myBottomPanel.add(myMessageField);
     	myBottomPanel.add(myStartGameButton);
+    	myBottomPanel.add(myUndoButton);
     	myBottomPanel.setSize(525, 200);
     	myBottomPanel.setLocation(100, 575);
     	
@@ -170,76 +157,30 @@ public class View
     
     /**
      * Associates each component's listener with the controller
-     * and the correct method to invoke when triggered.
+     * and the correct command to run when triggered.
      *
      * <pre>
      * pre:  the controller class has be instantiated
      * post: all listeners have been associated to the controller
-     *       and the method it must invoke
+     *       and the command it must run
      * </pre>
      */
     public void associateListeners()
     {
-        Class<? extends Controller> controllerClass;
-        Method startGameMethod,
-        		placePieceMethod;
-        
-        Class<?>[] classArgs;
-
-        controllerClass = myController.getClass();
-        
-        startGameMethod = null;
-        placePieceMethod = null;
-        classArgs = new Class[1];
-        
-        try
-        {
-           classArgs[0] = Class.forName("java.lang.Integer");
-        }
-        catch(ClassNotFoundException e)
-        {
-           String error;
-           error = e.toString();
-           System.out.println(error);
-        }
-        try
-        {
-           startGameMethod = controllerClass.getMethod("startGame",(Class<?>[])null);   
-           placePieceMethod = controllerClass.getMethod("placePiece",classArgs);
-           
-        }
-        catch(NoSuchMethodException exception)
-        {
-           String error;
-
-           error = exception.toString();
-           System.out.println(error);
-        }
-        catch(SecurityException exception)
-        {
-           String error;
-
-           error = exception.toString();
-           System.out.println(error);
-        }
-        
-        myStartGameListener = new ButtonListener(myController, startGameMethod, null);
+        myStartGameListener = new ButtonListener(() -> myController.startGame());
         myStartGameButton.addMouseListener(myStartGameListener);
+        myUndoListener = new ButtonListener(() -> myController.undoMove());
+        myUndoButton.addMouseListener(myUndoListener);
         
-        Integer[] args;
-        
-        //loop through entire board
-        //for every row in a column, assign it to a column
-        for(int i=0; i<myNumColumns; i++)
-        {
-        	args = new Integer[1];
-        	args[0] = new Integer(i);
-        	myColumnListener[i] = new ButtonListener(myController, placePieceMethod, args);
-        	for(int j=0; j<myNumRows; j++)
-			{
-        		myBoard[j][i].addMouseListener(myColumnListener[i]);
-			}
-        }
+        //one listener for the whole board, the click's x picks the column
+        myBoardListener = new ButtonListener(() -> {
+        	int col = myBoardPanel.getColumnAt(myBoardListener.getLastEvent().getX());
+        	if(col > -1)
+        	{
+        		myController.placePiece(col);
+        	}
+        });
+        myBoardPanel.addMouseListener(myBoardListener);
     }
 
 	/**
@@ -271,6 +212,15 @@ public class View
 		myMessageField.setText(string + newline);
 	}
 	
+	/**
+	* Method to show whether the computer is thinking. The board gets a wait
+	* cursor while it is, since clicks on it are ignored until the computer moves.
+	* @author Madison Gipson */
+	public void setThinking(boolean thinking)
+	{
+		myBoardPanel.setCursor(Cursor.getPredefinedCursor(thinking? Cursor.WAIT_CURSOR : Cursor.DEFAULT_CURSOR));
+	}
+	
 	/**
 	* Method to update the name label based on updated name 
 	* from Controller- changes when name is invalid.
@@ -281,38 +231,20 @@ public class View
 	}
 	
 	/**
-	* Switches image at each spot in board (canvas) to match
-	* the color of the piece currently being placed.
+	* Repaints the spot a piece was just placed in; the board
+	* panel reads the piece's color from the game board.
 	* @author Madison Gipson */
     public void switchImage(int col, int row)
     {
-    	if(myController.getPieceType() == PieceType.RED)
-    	{
-    		myBoard[row][col].setImage(myRedCircle);
-    	}
-    	else if(myController.getPieceType() == PieceType.BLACK)
-    	{
-    		myBoard[row][col].setImage(myBlackCircle);
-    	}
-    	else if(myController.getPieceType() == PieceType.GREEN)
-    	{
-    		myBoard[row][col].setImage(myGreenCircle);
-    	}
-    	else if(myController.getPieceType() == PieceType.YELLOW)
-    	{
-    		myBoard[row][col].setImage(myYellowCircle);
-    	}    	
+    	myBoardPanel.repaintSpot(col, row);
     }
     
     /**
 	* Highlights the entire win length.
 	* @author Madison Gipson */
-    public void highlightWin(Point winBegin, Point winEnd, Point secondPoint, Point thirdPoint) 
+    public void highlightWin(Spot[] winSpots) 
     {
-    	myBoard[winBegin.y][winBegin.x].setBackground(Color.BLUE);
-    	myBoard[winEnd.y][winEnd.x].setBackground(Color.BLUE);
-    	myBoard[secondPoint.y][secondPoint.x].setBackground(Color.BLUE);
-    	myBoard[thirdPoint.y][thirdPoint.x].setBackground(Color.BLUE);
+    	myBoardPanel.highlight(winSpots);
     }
    
     public void setMyName(String string)
@@ -343,13 +275,14 @@ public class View
 	* @author Madison Gipson */
 	public void resetBoard()
 	{
-		for(int i=myNumRows-1; i > -1; i--)
-    	{
-        	for(int j=0; j < myNumColumns; j++) 
-        	{
-        		 myBoard[i][j].setImage(myBlankImage);
-        		 myBoard[i][j].setBackground(null);
-        	}
-    	}
+		myBoardPanel.resetBoard();
+	}
+	
+	/**
+	* Gives the board panel the game board it paints from.
+	* @author Madison Gipson */
+	public void setGameBoard(GameBoard gameboard)
+	{
+		myBoardPanel.setGameBoard(gameboard);
 	}
 }
\ No newline at end of file